@@ -0,0 +1,107 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seccion bankAccounts de customer-summary: decodificar la respuesta del servicio de cuentas a
+ * List&lt;Map&gt; (camino anterior) frente a BankAccountDTO elemento a elemento, y serializar el
+ * resultado. La respuesta simulada trae campos que el reporte no usa, como la real.
+ * Con -prof gc (jmh.args por defecto) se compara la asignacion por operacion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownstreamDecodingBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final ResolvableType MAP_LIST = ResolvableType.forType(new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+    private static final ResolvableType ACCOUNT = ResolvableType.forClass(BankAccountDTO.class);
+
+    @Param({"1000", "10000"})
+    public int accounts;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonDecoder decoder;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        decoder = new Jackson2JsonDecoder(objectMapper);
+        decoder.setMaxInMemorySize(-1);
+        SplittableRandom random = new SplittableRandom(42L);
+        List<Map<String, Object>> body = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Map<String, Object> account = new LinkedHashMap<>();
+            account.put("id", "account-" + i);
+            account.put("customerId", "customer-1");
+            account.put("accountType", i % 3 == 0 ? "SAVINGS" : "CHECKING");
+            account.put("balance", BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+            account.put("accountNumber", String.format("191-%010d", i));
+            account.put("cci", String.format("002-191-%012d", i));
+            account.put("maintenanceFee", BigDecimal.ZERO);
+            account.put("monthlyMovementLimit", 20);
+            account.put("holders", List.of("customer-1"));
+            account.put("authorizedSigners", List.of());
+            account.put("createdAt", "2025-01-01T10:00:00");
+            account.put("updatedAt", "2025-03-01T10:00:00");
+            body.add(account);
+        }
+        payload = objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] mapTree() throws IOException {
+        Object decoded = decoder.decodeToMono(chunks(), MAP_LIST, MediaType.APPLICATION_JSON, Collections.emptyMap()).block();
+        return objectMapper.writeValueAsBytes(decoded);
+    }
+
+    @Benchmark
+    public byte[] typedDto() throws IOException {
+        List<Object> decoded = decoder.decode(chunks(), ACCOUNT, MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .collectList()
+                .block();
+        return objectMapper.writeValueAsBytes(decoded);
+    }
+
+    private Flux<DataBuffer> chunks() {
+        return Flux.range(0, (payload.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        ByteBuffer.wrap(payload, i * CHUNK_SIZE, Math.min(CHUNK_SIZE, payload.length - i * CHUNK_SIZE))));
+    }
+}
@@ -0,0 +1,110 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.skoy.bootcamp_microservices.config.MongoConfig;
+import com.skoy.bootcamp_microservices.dto.IngestionResult;
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.repository.IDailyRollupRepository;
+import com.skoy.bootcamp_microservices.service.RollupService;
+import com.skoy.bootcamp_microservices.service.TransactionIngestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserciones por segundo de TransactionIngestionService contra un Mongo real
+ * (-Dbenchmark.mongo.uri, por defecto mongodb://localhost:27017, base report_benchmark).
+ * Cada invocacion ingesta un lote de ids nuevos, asi que todas las filas son inserciones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IngestionBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 20_000;
+
+    @Param({"500", "1000", "5000"})
+    public int batchSize;
+
+    @Param({"1", "4", "8"})
+    public int writeConcurrency;
+
+    @Param({"false", "true"})
+    public boolean applyRollups;
+
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private TransactionIngestionService service;
+    private List<Transaction> events;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        SimpleReactiveMongoDatabaseFactory factory = new SimpleReactiveMongoDatabaseFactory(client, "report_benchmark");
+        MongoCustomConversions conversions = MongoConfig.mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        template = new ReactiveMongoTemplate(factory, converter);
+        template.dropCollection(Transaction.class).then(template.dropCollection(DailyRollup.class)).block();
+
+        IDailyRollupRepository rollups = new ReactiveMongoRepositoryFactory(template).getRepository(IDailyRollupRepository.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new TransactionIngestionService(template, new RollupService(template, rollups, registry), event -> { }, registry,
+                batchSize, Duration.ofMillis(50), writeConcurrency, 1024, applyRollups);
+        events = SyntheticLedger.generateEntities(EVENTS_PER_INVOCATION, 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public IngestionResult ingest() {
+        String prefix = "r" + (round++) + "-";
+        return service.ingest(Flux.fromIterable(events).map(event -> withId(event, prefix + event.getId()))).block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.destroy();
+        template.dropCollection(Transaction.class).then(template.dropCollection(DailyRollup.class)).block();
+        client.close();
+    }
+
+    private static Transaction withId(Transaction source, String id) {
+        return new Transaction(id, source.getCustomerId(), source.getProductType(), source.getProductTypeId(),
+                source.getTransactionType(), source.getCardType(), source.getCardId(), source.getAmount(),
+                source.getStatus(), source.getCreatedAt(), source.getUpdatedAt(), source.getCommissionAmount());
+    }
+}
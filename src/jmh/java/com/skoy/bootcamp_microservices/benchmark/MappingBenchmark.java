@@ -0,0 +1,64 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.mapper.TransactionMapper;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.utils.UDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por elemento de TransactionMapper.toDto y de los formateos de UDate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    private List<Transaction> entities;
+    private LocalDateTime dateTime;
+    private LocalDate date;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = SyntheticLedger.generateEntities(SAMPLE_SIZE, 42L);
+        dateTime = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+        date = dateTime.toLocalDate();
+    }
+
+    @Benchmark
+    public TransactionDTO toDto() {
+        index = (index + 1) & (SAMPLE_SIZE - 1);
+        return TransactionMapper.toDto(entities.get(index));
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return UDate.formatDate(dateTime);
+    }
+
+    @Benchmark
+    public String convertDate() {
+        return UDate.convertToString(date);
+    }
+}
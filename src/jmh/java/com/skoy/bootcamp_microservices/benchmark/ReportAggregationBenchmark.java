@@ -0,0 +1,117 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import com.skoy.bootcamp_microservices.utils.TopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reducciones de ReportService sobre un libro en memoria: la forma anterior
+ * (groupBy + collectList, sort + take) frente a KeyedSum y TopK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ReportAggregationBenchmark {
+
+    private static final Comparator<TransactionDTO> NEWEST_FIRST =
+            Comparator.comparing(TransactionDTO::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int ledgerSize;
+
+    private List<TransactionDTO> ledger;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledger = SyntheticLedger.generate(ledgerSize, 42L);
+        startDate = SyntheticLedger.START.plusMonths(2);
+        endDate = startDate.plusMonths(6);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> commissionsGroupByCollectList() {
+        return Flux.fromIterable(ledger)
+                .filter(transaction -> !transaction.getCreatedAt().toLocalDate().isBefore(startDate) &&
+                        !transaction.getCreatedAt().toLocalDate().isAfter(endDate))
+                .filter(transaction -> transaction.getCommissionAmount() != null && transaction.getCommissionAmount().compareTo(BigDecimal.ZERO) > 0)
+                .groupBy(TransactionDTO::getProductTypeId)
+                .flatMap(groupedFlux -> groupedFlux.collectList()
+                        .map(transactions -> {
+                            BigDecimal totalCommission = transactions.stream()
+                                    .map(TransactionDTO::getCommissionAmount)
+                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+                            return Map.entry(groupedFlux.key(), totalCommission);
+                        }))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> commissionsKeyedSum() {
+        DateRange range = DateRange.of(startDate, endDate);
+        Flux<TransactionDTO> transactions = Flux.fromIterable(ledger)
+                .filter(transaction -> range.contains(transaction.getCreatedAt()))
+                .filter(transaction -> transaction.getCommissionAmount() != null && transaction.getCommissionAmount().compareTo(BigDecimal.ZERO) > 0);
+        return KeyedSum.sumByKey(transactions, TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount)
+                .block();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> balancesGroupByCollectList() {
+        return Flux.fromIterable(ledger)
+                .groupBy(TransactionDTO::getProductTypeId)
+                .flatMap(groupedFlux -> groupedFlux.collectList()
+                        .map(transactions -> Map.entry(groupedFlux.key(), transactions.stream()
+                                .map(TransactionDTO::getAmount)
+                                .reduce(BigDecimal.ZERO, BigDecimal::add))))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> balancesKeyedSum() {
+        return KeyedSum.sumByKey(Flux.fromIterable(ledger), TransactionDTO::getProductTypeId, TransactionDTO::getAmount)
+                .block();
+    }
+
+    @Benchmark
+    public List<TransactionDTO> last10SortThenTake() {
+        return Flux.fromIterable(ledger)
+                .sort(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
+                .take(10)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<TransactionDTO> last10TopK() {
+        return TopK.of(Flux.fromIterable(ledger), 10, NEWEST_FIRST)
+                .block();
+    }
+}
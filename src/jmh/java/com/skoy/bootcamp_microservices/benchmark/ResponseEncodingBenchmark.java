@@ -0,0 +1,113 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import com.skoy.bootcamp_microservices.dto.CreditDTO;
+import com.skoy.bootcamp_microservices.dto.CustomerDTO;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.CreditTypeEnum;
+import com.skoy.bootcamp_microservices.enums.CurrencyEnum;
+import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificar y decodificar un customer-summary grande (cuentas, creditos y transacciones dentro de
+ * ApiResponse) en JSON, CBOR y Smile. El tamano de cada formato, sin y con gzip, se imprime al inicio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    private static final TypeReference<ApiResponse<Summary>> RESPONSE = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"500"})
+    public int products;
+
+    private ObjectMapper mapper;
+    private ApiResponse<Summary> response;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        response = new ApiResponse<>("Success", summary(products), 200);
+        encoded = mapper.writeValueAsBytes(response);
+        System.out.printf("%n%s: %d bytes, %d bytes gzip%n", format, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApiResponse<Summary> decode() throws IOException {
+        return mapper.readValue(encoded, RESPONSE);
+    }
+
+    private static Summary summary(int products) {
+        Summary summary = new Summary();
+        summary.setCustomerInfo(new CustomerDTO("customer-1", "PERSONAL", "Ana", "Quispe", "DNI", "40404040",
+                "ana@example.com", "999888777"));
+        for (int i = 0; i < products; i++) {
+            summary.getBankAccounts().add(new BankAccountDTO("account-" + i, "customer-1", "SAVINGS",
+                    BigDecimal.valueOf(1_000_000L + i * 137L, 2)));
+            summary.getCredits().add(new CreditDTO("credit-" + i, "customer-1", CreditTypeEnum.PERSONAL,
+                    BigDecimal.valueOf(5_000_000L, 2), BigDecimal.valueOf(2_500_000L + i * 91L, 2), CurrencyEnum.PEN));
+        }
+        summary.setTransactions(SyntheticLedger.generate(products, 42L));
+        return summary;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    @Data
+    public static class Summary {
+        private CustomerDTO customerInfo;
+        private List<BankAccountDTO> bankAccounts = new ArrayList<>();
+        private List<CreditDTO> credits = new ArrayList<>();
+        private List<TransactionDTO> transactions = new ArrayList<>();
+    }
+}
@@ -0,0 +1,207 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * customer-summary con 5000 peticiones concurrentes sobre el runtime reactivo (Reactor Netty, el jar
+ * normal) y sobre Tomcat (jar del perfil servlet-runtime arrancado con web-application-type=servlet).
+ * Cada invocacion mide el tiempo hasta completar la rafaga; al terminar imprime las respuestas por
+ * estado y el pico de hilos vivos del servicio (jvm.threads.peak). Los servicios remotos son un stub
+ * local con 50 ms de latencia; limitador, caches, bulkheads y timeouts se relajan para que la
+ * comparacion mida el runtime y no las protecciones.
+ * Requiere ambos artefactos:
+ * mvn -Pservlet-runtime package -DskipTests, y despues mvn -Pjmh verify -DskipTests -Djmh.args="RuntimeComparisonBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RuntimeComparisonBenchmark {
+
+    private static final int CONCURRENCY = 5000;
+    private static final int CUSTOMERS = 100_000;
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(50);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Pattern VALUE = Pattern.compile("\"value\":([0-9.]+)");
+
+    @Param({"reactive", "servlet"})
+    public String runtime;
+
+    private Path target;
+    private DisposableServer downstream;
+    private ConnectionProvider connections;
+    private HttpClient http;
+    private Process process;
+    private int invocation;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        target = Path.of(System.getProperty("benchmark.target", "target")).toAbsolutePath();
+        downstream = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/v1/customers/{id}", (request, response) -> Mono.delay(DOWNSTREAM_LATENCY)
+                                .then(response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just("{\"id\":\"" + request.param("id") + "\",\"firstName\":\"Ana\"}"))
+                                        .then()))
+                        .get("/**", (request, response) -> Mono.delay(DOWNSTREAM_LATENCY)
+                                .then(response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just("[]"))
+                                        .then())))
+                .bindNow();
+        connections = ConnectionProvider.builder("runtime-benchmark")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        int port = freePort();
+        http = HttpClient.create(connections)
+                .baseUrl("http://localhost:" + port)
+                .responseTimeout(Duration.ofMinutes(2));
+        process = launch(port);
+        awaitReady();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+        connections.dispose();
+        downstream.disposeNow();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printIteration() {
+        System.out.printf("%n%s: statuses=%s, service jvm.threads.peak=%s%n", runtime, statuses, metric("jvm.threads.peak"));
+        statuses.clear();
+    }
+
+    @Benchmark
+    public int burst() {
+        int offset = (invocation++ * CONCURRENCY) % CUSTOMERS;
+        List<Integer> results = Flux.range(0, CONCURRENCY)
+                .flatMap(i -> http.get()
+                        .uri("/api/v1/reports/customer-summary/c" + (offset + i))
+                        .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                        .onErrorReturn(-1), CONCURRENCY)
+                .collectList()
+                .block();
+        results.forEach(status -> statuses.merge(status, 1, Integer::sum));
+        return results.size();
+    }
+
+    private Process launch(int port) throws IOException {
+        Path directory = "servlet".equals(runtime) ? target.resolve("servlet-runtime") : target;
+        String downstreamUrl = "http://localhost:" + downstream.port() + "/api/v1";
+        List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", applicationJar(directory).toString(),
+                "--spring.main.web-application-type=" + runtime,
+                "--server.port=" + port,
+                "--eureka.client.enabled=false",
+                "--reports.limiter.enabled=false",
+                "--reports.response-cache.enabled=false",
+                "--reports.deadline=120s",
+                "--resilience4j.bulkhead.configs.default.max-concurrent-calls=100000",
+                "--resilience4j.circuitbreaker.configs.default.slow-call-duration-threshold=120s",
+                "--logging.level.root=WARN"));
+        for (String service : List.of("customer", "bankaccount", "credit")) {
+            command.addAll(List.of("--services." + service + "=" + downstreamUrl,
+                    "--cache.services." + service + ".enabled=false",
+                    "--clients.services." + service + ".service-id=",
+                    "--clients.services." + service + ".call-timeout=120s",
+                    "--clients.services." + service + ".hedge-delay=",
+                    "--clients.services." + service + ".pending-acquire-max-count=-1",
+                    "--clients.services." + service + ".pending-acquire-timeout=120s"));
+        }
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile())
+                .start();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + logFile());
+            }
+            Integer status = http.get()
+                    .uri("/api/v1/reports/customer-summary/warmup")
+                    .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                    .onErrorReturn(-1)
+                    .block();
+            if (status != null && status == 200) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Service not ready within " + STARTUP_TIMEOUT + ", see " + logFile());
+    }
+
+    private String metric(String name) {
+        String body = http.get()
+                .uri("/actuator/metrics/" + name)
+                .responseContent()
+                .aggregate()
+                .asString()
+                .onErrorReturn("")
+                .block();
+        Matcher matcher = VALUE.matcher(body != null ? body : "");
+        return matcher.find() ? matcher.group(1) : "n/a";
+    }
+
+    private File logFile() {
+        return target.resolve("runtime-" + runtime + ".log").toFile();
+    }
+
+    private static Path applicationJar(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + directory
+                            + "; build it with mvn package -DskipTests (and -Pservlet-runtime for the servlet jar)"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo desde el lanzamiento del proceso hasta el primer general-report-by-product con 200, con el
+ * jar normal (default) y con la build de arranque rapido (faststart: AOT + CDS). Requiere ambos
+ * artefactos: mvn -Pjmh,faststart verify -DskipTests -Djmh.args="StartupBenchmark".
+ * Los servicios de cuentas y creditos se sustituyen por un stub local que responde listas vacias.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    @Param({"default", "faststart"})
+    public String mode;
+
+    private Path target;
+    private DisposableServer downstream;
+    private HttpClient http;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Path.of(System.getProperty("benchmark.target", "target")).toAbsolutePath();
+        downstream = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/**", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("[]"))))
+                .bindNow();
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        downstream.disposeNow();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstReport() throws IOException, InterruptedException {
+        int port = freePort();
+        process = launch(port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/v1/reports/general-report-by-product?customerId=c1&dateFrom=2025-01-01&dateTo=2025-01-31"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + logFile());
+            }
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException ex) {
+                // todavia no escucha
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException("No successful report within " + STARTUP_TIMEOUT + ", see " + logFile());
+    }
+
+    private Process launch(int port) throws IOException {
+        String downstreamUrl = "http://localhost:" + downstream.port() + "/api/v1";
+        List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        Path workingDirectory;
+        if ("faststart".equals(mode)) {
+            // El archivo CDS solo se acepta con el mismo classpath del entrenamiento: se lanza desde target/faststart
+            workingDirectory = target.resolve("faststart");
+            command.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=faststart", "-jar", applicationJar(workingDirectory).getFileName().toString()));
+        } else {
+            workingDirectory = target;
+            command.addAll(List.of("-jar", applicationJar(target).toString()));
+        }
+        command.addAll(List.of("--server.port=" + port,
+                "--services.bankaccount=" + downstreamUrl,
+                "--services.credit=" + downstreamUrl));
+        return new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile())
+                .start();
+    }
+
+    private File logFile() {
+        return target.resolve("startup-" + mode + ".log").toFile();
+    }
+
+    private static Path applicationJar(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + directory
+                            + "; build it with mvn -Pfaststart package -DskipTests"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionStatusEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionTypeEnum;
+import com.skoy.bootcamp_microservices.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Libro de transacciones sintetico y reproducible (semilla fija) para los benchmarks.
+ */
+final class SyntheticLedger {
+
+    static final LocalDate START = LocalDate.of(2025, 1, 1);
+    static final int DAYS = 365;
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int PRODUCTS = 200;
+    private static final int MAX_AMOUNT_CENTS = 500_000;
+    private static final int MAX_COMMISSION_CENTS = 1_500;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private SyntheticLedger() {
+    }
+
+    static List<TransactionDTO> generate(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<TransactionDTO> ledger = new ArrayList<>(size);
+        LocalDateTime origin = START.atStartOfDay();
+        for (int i = 0; i < size; i++) {
+            boolean credit = random.nextBoolean();
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId("tx-" + i);
+            dto.setCustomerId("customer-" + random.nextInt(CUSTOMERS));
+            dto.setProductType(credit ? ProductTypeEnum.CREDIT : ProductTypeEnum.BANK_ACCOUNT);
+            dto.setProductTypeId("product-" + random.nextInt(PRODUCTS));
+            dto.setTransactionType(TransactionTypeEnum.values()[random.nextInt(TransactionTypeEnum.values().length)]);
+            dto.setCardType(credit ? Transaction.CardTypeEnum.CREDIT : Transaction.CardTypeEnum.DEBIT);
+            dto.setAmount(BigDecimal.valueOf(random.nextInt(MAX_AMOUNT_CENTS), 2));
+            dto.setStatus(TransactionStatusEnum.APPROVED);
+            dto.setCreatedAt(origin.plusSeconds(random.nextLong((long) DAYS * SECONDS_PER_DAY)));
+            dto.setCommissionAmount(random.nextInt(4) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextInt(MAX_COMMISSION_CENTS), 2));
+            ledger.add(dto);
+        }
+        return ledger;
+    }
+
+    static List<Transaction> generateEntities(int size, long seed) {
+        List<TransactionDTO> dtos = generate(size, seed);
+        List<Transaction> entities = new ArrayList<>(size);
+        for (TransactionDTO dto : dtos) {
+            Transaction item = new Transaction();
+            item.setId(dto.getId());
+            item.setCustomerId(dto.getCustomerId());
+            item.setProductTypeId(dto.getProductTypeId());
+            item.setCardType(dto.getCardType());
+            item.setAmount(dto.getAmount());
+            item.setCreatedAt(dto.getCreatedAt());
+            item.setCommissionAmount(dto.getCommissionAmount());
+            entities.add(item);
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,97 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificacion Jackson de listas de TransactionDTO: arbol completo con ObjectMapper
+ * frente al decodificador de WebFlux que emite elementos a medida que llegan los buffers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TransactionDecodingBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int ledgerSize;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonDecoder decoder;
+    private byte[] jsonArray;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        decoder = new Jackson2JsonDecoder(objectMapper);
+        decoder.setMaxInMemorySize(-1);
+        List<TransactionDTO> ledger = SyntheticLedger.generate(ledgerSize, 42L);
+        jsonArray = objectMapper.writeValueAsBytes(ledger);
+        StringBuilder lines = new StringBuilder();
+        for (TransactionDTO dto : ledger) {
+            lines.append(objectMapper.writeValueAsString(dto)).append('\n');
+        }
+        ndjson = lines.toString().getBytes();
+    }
+
+    @Benchmark
+    public List<TransactionDTO> objectMapperList() throws IOException {
+        return objectMapper.readValue(jsonArray, new TypeReference<List<TransactionDTO>>() {});
+    }
+
+    @Benchmark
+    public Long webFluxJsonArrayStream() {
+        return decode(jsonArray, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Long webFluxNdjsonStream() {
+        return decode(ndjson, MediaType.APPLICATION_NDJSON);
+    }
+
+    private Long decode(byte[] body, MediaType mediaType) {
+        return decoder.decode(chunks(body), ResolvableType.forClass(TransactionDTO.class), mediaType, Collections.emptyMap())
+                .count()
+                .block();
+    }
+
+    private Flux<DataBuffer> chunks(byte[] body) {
+        int count = (body.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return Flux.range(0, count).map(i -> {
+            int offset = i * CHUNK_SIZE;
+            int length = Math.min(CHUNK_SIZE, body.length - offset);
+            return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(body, offset, length));
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.skoy.bootcamp_microservices.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import io.netty.channel.ChannelOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Llamada a un servicio de cuentas local con el WebClient compartido de WebClientConfig (pool propio,
+ * keep-alive, timeouts) frente a construir un WebClient por llamada desde el builder de Spring Boot,
+ * como hacia ReportService antes. SampleTime da p50/p99 por llamada; al final de cada iteracion se
+ * imprime la rotacion de conexiones (conexiones TCP nuevas aceptadas por el stub por cada 1000 llamadas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class WebClientPoolBenchmark {
+
+    private static final String PATH = "/api/v1/bank_accounts/customer/c1";
+
+    @Param({"shared", "perCall"})
+    public String client;
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private DisposableServer downstream;
+    private ConnectionProvider provider;
+    private WebClient shared;
+    private WebClient.Builder bootBuilder;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        List<BankAccountDTO> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(new BankAccountDTO("ba" + i, "c1", "SAVINGS", BigDecimal.valueOf(1000 + i)));
+        }
+        byte[] payload = mapper.writeValueAsBytes(accounts);
+        downstream = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .doOnChannelInit((observer, channel, address) -> connections.increment())
+                .handle((request, response) -> response
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .sendByteArray(Mono.just(payload)))
+                .bindNow();
+        baseUrl = "http://localhost:" + downstream.port();
+
+        // Mismos ajustes por defecto que WebClientProperties.Settings
+        provider = ConnectionProvider.builder("benchmark-pool")
+                .maxConnections(500)
+                .pendingAcquireMaxCount(1000)
+                .pendingAcquireTimeout(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .maxLifeTime(Duration.ofMinutes(5))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+        shared = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 2000)
+                        .keepAlive(true)
+                        .responseTimeout(Duration.ofSeconds(10))
+                        .compress(true)))
+                .build();
+        // El WebClient.Builder autoconfigurado usa el conector con los recursos globales de Reactor Netty
+        bootBuilder = WebClient.builder().clientConnector(new ReactorClientHttpConnector());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.dispose();
+        downstream.disposeNow();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        connections.reset();
+        calls.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printChurn() {
+        long total = calls.sum();
+        System.out.printf("%n%s: %d calls, %d new connections (%.2f per 1000 calls)%n", client, total, connections.sum(),
+                total == 0 ? 0 : connections.sum() * 1000.0 / total);
+    }
+
+    @Benchmark
+    public List<BankAccountDTO> bankAccounts() {
+        calls.increment();
+        if ("shared".equals(client)) {
+            return shared.get().uri(PATH).retrieve().bodyToFlux(BankAccountDTO.class).collectList().block();
+        }
+        return bootBuilder.build().get().uri(baseUrl + PATH).retrieve().bodyToFlux(BankAccountDTO.class).collectList().block();
+    }
+}
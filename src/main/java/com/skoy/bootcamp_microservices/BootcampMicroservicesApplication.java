@@ -3,8 +3,6 @@ package com.skoy.bootcamp_microservices;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @SpringBootApplication
 @EnableDiscoveryClient
@@ -14,9 +12,4 @@ public class BootcampMicroservicesApplication {
 		SpringApplication.run(BootcampMicroservicesApplication.class, args);
 	}
 
-	@Bean
-	public WebClient.Builder webClientBuilder() {
-		return WebClient.builder();
-	}
-
 }
@@ -0,0 +1,202 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Codecs CBOR (application/cbor) y Smile (application/x-jackson-smile) junto a JSON, para el servidor
+ * y para los WebClient (el builder de Boot aplica los CodecCustomizer). Usan la misma configuracion
+ * de Jackson que JSON; la respuesta se elige por Accept y JSON sigue siendo el formato por defecto.
+ */
+@Configuration
+public class BinaryCodecsConfig {
+
+    // Con un ObjectMapper propio hay que indicar los tipos; si no, los codecs asumen los de JSON.
+    private static final MimeType SMILE = new MimeType("application", "x-jackson-smile");
+    private static final MimeType STREAM_SMILE = new MimeType("application", "stream+x-jackson-smile");
+
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                                  ObjectMapper objectMapper) {
+        ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        return configurer -> {
+            // Los codecs propios van antes que los de objeto por defecto: sin este encoder JSON al inicio,
+            // un Accept */* (o ausente) acabaria respondiendo en CBOR.
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().register(new CborEncoder(cborMapper));
+            configurer.customCodecs().register(new CborDecoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper, SMILE, STREAM_SMILE));
+            configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper, SMILE, STREAM_SMILE));
+        };
+    }
+
+    /**
+     * El encoder CBOR de Spring no implementa encode(Publisher). Un Flux se escribe como un array de
+     * longitud indefinida (0x9F, elementos, 0xFF): cada elemento sale al llegar, sin juntar la lista.
+     */
+    static class CborEncoder extends Jackson2CborEncoder {
+
+        private static final byte START_INDEFINITE_ARRAY = (byte) 0x9F;
+        private static final byte BREAK = (byte) 0xFF;
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return Flux.concat(
+                    Mono.fromSupplier(() -> bufferFactory.wrap(new byte[]{START_INDEFINITE_ARRAY})),
+                    Flux.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)),
+                    Mono.fromSupplier(() -> bufferFactory.wrap(new byte[]{BREAK})));
+        }
+    }
+
+    /**
+     * Jackson no tiene parser CBOR no bloqueante, asi que un array se lee token a token con el parser
+     * bloqueante sobre el cuerpo en boundedElastic: cada elemento se emite en cuanto esta completo y
+     * en memoria solo hay el elemento en curso y los buffers pedidos.
+     */
+    static class CborDecoder extends Jackson2CborDecoder {
+
+        private static final int PREFETCH_BUFFERS = 2;
+
+        CborDecoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+            ObjectReader reader = getObjectMapper().readerFor(getJavaType(elementType.getType(), null));
+            return Flux.<Object, JsonParser>generate(
+                            () -> {
+                                JsonParser parser = getObjectMapper().getFactory()
+                                        .createParser(new BufferInputStream(input));
+                                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                                    parser.close();
+                                    throw new DecodingException("Expected a CBOR array for a stream of " + elementType);
+                                }
+                                return parser;
+                            },
+                            (parser, sink) -> {
+                                try {
+                                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                                        sink.complete();
+                                    } else {
+                                        sink.next(reader.readValue(parser));
+                                    }
+                                } catch (IOException ex) {
+                                    sink.error(new DecodingException("CBOR decoding error: " + ex.getMessage(), ex));
+                                }
+                                return parser;
+                            },
+                            parser -> {
+                                try {
+                                    parser.close();
+                                } catch (IOException ignored) {
+                                    // el cuerpo ya se libero o fallo; no hay nada mas que cerrar
+                                }
+                            })
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        /**
+         * Entrada bloqueante que devuelve solo lo que trae el buffer actual. subscriberInputStream llena
+         * todo el hueco pedido (Jackson pide ~8 KB), asi que un elemento pequeno no se emitia hasta que
+         * llegaba mas cuerpo.
+         */
+        private static final class BufferInputStream extends InputStream {
+
+            private final Stream<DataBuffer> stream;
+            private final Iterator<DataBuffer> buffers;
+            private DataBuffer current;
+
+            BufferInputStream(Publisher<DataBuffer> input) {
+                this.stream = Flux.from(input)
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .toStream(PREFETCH_BUFFERS);
+                this.buffers = stream.iterator();
+            }
+
+            @Override
+            public int read() {
+                DataBuffer buffer = current();
+                return buffer == null ? -1 : buffer.read() & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                DataBuffer buffer = current();
+                if (buffer == null) {
+                    return -1;
+                }
+                int count = Math.min(length, buffer.readableByteCount());
+                buffer.read(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public void close() {
+                release();
+                stream.close();
+            }
+
+            private DataBuffer current() {
+                while (current == null || current.readableByteCount() == 0) {
+                    release();
+                    if (!buffers.hasNext()) {
+                        return null;
+                    }
+                    current = buffers.next();
+                }
+                return current;
+            }
+
+            private void release() {
+                if (current != null) {
+                    DataBufferUtils.release(current);
+                    current = null;
+                }
+            }
+        }
+    }
+}
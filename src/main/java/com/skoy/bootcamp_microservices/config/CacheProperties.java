@@ -0,0 +1,28 @@
+package com.skoy.bootcamp_microservices.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de lecturas a servicios remotos (cache.services.&lt;servicio&gt;.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    private Map<String, Spec> services = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofSeconds(30);
+        private long maxSize = 10_000;
+        // si esta activo, una entrada vencida se sirve durante staleTtl mientras se recarga en segundo plano
+        private boolean staleWhileRevalidate = false;
+        private Duration staleTtl = Duration.ofSeconds(30);
+    }
+}
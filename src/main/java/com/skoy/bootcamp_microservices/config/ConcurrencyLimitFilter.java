@@ -0,0 +1,136 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import com.skoy.bootcamp_microservices.utils.GradientLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rechaza de inmediato (503 + Retry-After) las peticiones de reportes que exceden el limite adaptativo
+ * de su endpoint, en lugar de dejarlas encolarse en las llamadas remotas hasta vencer el timeout.
+ * El endpoint es el patron de ruta del controlador que atiende la peticion, relativo a /api/v1/reports/
+ * (p. ej. customer-summary/{customerId} y customer-summary/batch tienen limites distintos). Las clases
+ * no adaptativas no aportan muestras de latencia: un lote o un flujo largo dura lo que dura su cuerpo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private static final String UNMATCHED = "unmatched";
+    private static final ConcurrencyLimitProperties.PriorityClass DEFAULTS = new ConcurrencyLimitProperties.PriorityClass();
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final byte[] rejectedBody;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    // rutas de reportes de la mas a la menos especifica; se leen con la primera peticion
+    private volatile List<PathPattern> routes;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                  @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping)
+            throws JsonProcessingException {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.handlerMapping = handlerMapping;
+        this.rejectedBody = objectMapper.writeValueAsBytes(
+                new ApiResponse<>("Server overloaded, retry later", null, HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!properties.isEnabled() || !path.startsWith(InFlightRequestsFilter.REPORTS_PATH)) {
+            return chain.filter(exchange);
+        }
+        Limit limit = limits.computeIfAbsent(route(exchange), this::create);
+        if (!limit.limiter().tryAcquire()) {
+            limit.rejected().increment();
+            return reject(exchange.getResponse());
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL || !limit.sampled()) {
+                        limit.limiter().release();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    limit.limiter().release(System.nanoTime() - start, dropped);
+                });
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectedBody)));
+    }
+
+    private String route(ServerWebExchange exchange) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern route : routes()) {
+            if (route.matches(path)) {
+                return route.getPatternString().substring(InFlightRequestsFilter.REPORTS_PATH.length());
+            }
+        }
+        return UNMATCHED;
+    }
+
+    private List<PathPattern> routes() {
+        List<PathPattern> current = routes;
+        if (current == null) {
+            current = handlerMapping.getHandlerMethods().keySet().stream()
+                    .flatMap(info -> info.getPatternsCondition().getPatterns().stream())
+                    .filter(pattern -> pattern.getPatternString().startsWith(InFlightRequestsFilter.REPORTS_PATH))
+                    .distinct()
+                    .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+                    .toList();
+            routes = current;
+        }
+        return current;
+    }
+
+    private Limit create(String endpoint) {
+        String priorityClass = properties.getEndpoints().getOrDefault(endpoint, properties.getDefaultClass());
+        ConcurrencyLimitProperties.PriorityClass spec = properties.getClasses().getOrDefault(priorityClass, DEFAULTS);
+        GradientLimiter limiter = new GradientLimiter(spec.isAdaptive(), spec.getInitialLimit(), spec.getMinLimit(),
+                spec.getMaxLimit(), spec.getSmoothing(), spec.getRttTolerance(), spec.getLongWindow());
+        Tags tags = Tags.of("endpoint", endpoint, "class", priorityClass);
+        Gauge.builder("report.limiter.limit", limiter, GradientLimiter::getLimit).tags(tags).register(meterRegistry);
+        Gauge.builder("report.limiter.inflight", limiter, GradientLimiter::getInFlight).tags(tags).register(meterRegistry);
+        Counter rejected = Counter.builder("report.limiter.rejected").tags(tags).register(meterRegistry);
+        return new Limit(limiter, rejected, spec.isAdaptive());
+    }
+
+    private record Limit(GradientLimiter limiter, Counter rejected, boolean sampled) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.skoy.bootcamp_microservices.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limites de concurrencia por endpoint de reportes (reports.limiter.*). Cada endpoint tiene su propio
+ * limite con los parametros de su clase de prioridad (endpoints.&lt;endpoint&gt; = clase). El endpoint es
+ * el patron de ruta relativo a /api/v1/reports/; en YAML las claves con / o {} van entre corchetes.
+ */
+@Data
+@ConfigurationProperties(prefix = "reports.limiter")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private String defaultClass = "interactive";
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Map<String, PriorityClass> classes = new LinkedHashMap<>();
+    private Map<String, String> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class PriorityClass {
+        private boolean adaptive = true;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        private double smoothing = 0.2;
+        // latencia tolerada respecto del promedio largo antes de reducir el limite
+        private double rttTolerance = 2.0;
+        private int longWindow = 600;
+    }
+}
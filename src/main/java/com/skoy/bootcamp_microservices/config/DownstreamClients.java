@@ -0,0 +1,61 @@
+package com.skoy.bootcamp_microservices.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un WebClient de larga vida por servicio remoto, cada uno con su propio pool de conexiones.
+ */
+public class DownstreamClients implements DisposableBean {
+
+    public static final String CUSTOMER = "customer";
+    public static final String BANK_ACCOUNT = "bankaccount";
+    public static final String CREDIT = "credit";
+    public static final String TRANSACTION = "transaction";
+    public static final String CARD = "card";
+
+    private final Map<String, WebClient> clients;
+    private final List<ConnectionProvider> connectionProviders;
+
+    public DownstreamClients(Map<String, WebClient> clients, List<ConnectionProvider> connectionProviders) {
+        this.clients = Map.copyOf(clients);
+        this.connectionProviders = List.copyOf(connectionProviders);
+    }
+
+    public WebClient get(String service) {
+        WebClient client = clients.get(service);
+        if (client == null) {
+            throw new IllegalStateException("No client configured for service '" + service + "'");
+        }
+        return client;
+    }
+
+    public WebClient customer() {
+        return get(CUSTOMER);
+    }
+
+    public WebClient bankAccount() {
+        return get(BANK_ACCOUNT);
+    }
+
+    public WebClient credit() {
+        return get(CREDIT);
+    }
+
+    public WebClient transaction() {
+        return get(TRANSACTION);
+    }
+
+    public WebClient card() {
+        return get(CARD);
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+}
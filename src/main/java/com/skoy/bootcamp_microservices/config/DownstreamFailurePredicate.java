@@ -0,0 +1,24 @@
+package com.skoy.bootcamp_microservices.config;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Que cuenta como fallo para los circuit breakers de servicios remotos
+ * (resilience4j.circuitbreaker.configs.default.record-failure-predicate): respuestas 5xx, timeouts y
+ * errores de conexion. Un 4xx (p. ej. 404 de un cliente que no existe) es una respuesta valida del
+ * servicio y no debe abrir el circuito para los demas.
+ */
+public class DownstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return throwable instanceof WebClientRequestException || throwable instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,59 @@
+package com.skoy.bootcamp_microservices.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gauge report.requests.inflight por endpoint de reportes (primer segmento tras /api/v1/reports/).
+ */
+@Component
+@RequiredArgsConstructor
+public class InFlightRequestsFilter implements WebFilter {
+
+    static final String REPORTS_PATH = "/api/v1/reports/";
+    private static final int MAX_ENDPOINTS = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!path.startsWith(REPORTS_PATH)) {
+            return chain.filter(exchange);
+        }
+        String endpoint = endpoint(path);
+        if (inFlight.size() >= MAX_ENDPOINTS && !inFlight.containsKey(endpoint)) {
+            endpoint = "other";
+        }
+        AtomicInteger gauge = inFlight.computeIfAbsent(endpoint, this::register);
+        return Mono.defer(() -> {
+            gauge.incrementAndGet();
+            return chain.filter(exchange);
+        }).doFinally(signal -> gauge.decrementAndGet());
+    }
+
+    static String endpoint(String path) {
+        String rest = path.substring(REPORTS_PATH.length());
+        int slash = rest.indexOf('/');
+        return slash < 0 ? rest : rest.substring(0, slash);
+    }
+
+    private AtomicInteger register(String endpoint) {
+        AtomicInteger value = new AtomicInteger();
+        Gauge.builder("report.requests.inflight", value, AtomicInteger::get)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return value;
+    }
+}
@@ -0,0 +1,210 @@
+package com.skoy.bootcamp_microservices.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elige por peticion una instancia del servicio registrada en discovery (Eureka o la lista
+ * estatica spring.cloud.discovery.client.simple.instances) con power-of-two-choices: de dos
+ * instancias al azar gana la de menor EWMA de latencia por peticiones en curso. Una instancia con
+ * varios fallos seguidos se expulsa un tiempo, sin dejar fuera mas de maxEjectionPercent del total.
+ * Una instancia nueva empieza con la mediana del EWMA de las demas, no con cero, para no recibir de golpe
+ * todo el trafico; las que salen de discovery pierden sus estadisticas en el siguiente refresco.
+ * Sin instancias en discovery la peticion sale a la URL configurada.
+ */
+public class LatencyAwareLoadBalancer implements ExchangeFilterFunction {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final String serviceId;
+    private final WebClientProperties.LoadBalancing settings;
+    private final Mono<List<ServiceInstance>> instances;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final Counter ejections;
+
+    public LatencyAwareLoadBalancer(String serviceId, ReactiveDiscoveryClient discoveryClient,
+                                    WebClientProperties.LoadBalancing settings, MeterRegistry meterRegistry) {
+        this.serviceId = serviceId;
+        this.settings = settings;
+        this.instances = discoveryClient.getInstances(serviceId)
+                .collectList()
+                .doOnNext(this::retainStats)
+                .onErrorResume(ex -> {
+                    logger.warn("Could not resolve instances of {}: {}", serviceId, ex.toString());
+                    return Mono.just(List.of());
+                })
+                .cache(list -> settings.getInstancesRefresh(), ex -> Duration.ZERO, () -> Duration.ZERO);
+        this.ejections = Counter.builder("report.loadbalancer.ejections")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return instances.flatMap(available -> {
+            if (available.isEmpty()) {
+                return next.exchange(request);
+            }
+            ServiceInstance instance = choose(available);
+            InstanceStats instanceStats = stats(instance);
+            URI url = UriComponentsBuilder.fromUri(request.url())
+                    .scheme(instance.getScheme() != null ? instance.getScheme() : request.url().getScheme())
+                    .host(instance.getHost())
+                    .port(instance.getPort())
+                    .build(true)
+                    .toUri();
+            long start = instanceStats.begin();
+            return next.exchange(ClientRequest.from(request).url(url).build())
+                    .doOnNext(response -> end(instance, instanceStats, start, response.statusCode().is5xxServerError()))
+                    .doOnError(ex -> end(instance, instanceStats, start, true))
+                    .doOnCancel(instanceStats::cancel);
+        });
+    }
+
+    private ServiceInstance choose(List<ServiceInstance> available) {
+        List<ServiceInstance> candidates = candidates(available);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return stats(a).cost() <= stats(b).cost() ? a : b;
+    }
+
+    private List<ServiceInstance> candidates(List<ServiceInstance> available) {
+        long now = System.nanoTime();
+        List<ServiceInstance> healthy = new ArrayList<>(available.size());
+        for (ServiceInstance instance : available) {
+            if (!stats(instance).isEjected(now)) {
+                healthy.add(instance);
+            }
+        }
+        int maxEjected = available.size() * settings.getMaxEjectionPercent() / 100;
+        // Si hay mas expulsadas de las permitidas (o ninguna sana) se ignora la expulsion.
+        return healthy.isEmpty() || available.size() - healthy.size() > maxEjected ? available : healthy;
+    }
+
+    private void end(ServiceInstance instance, InstanceStats instanceStats, long start, boolean failed) {
+        if (instanceStats.end(start, failed)) {
+            ejections.increment();
+            logger.warn("Ejected {} instance {}:{} for {}", serviceId, instance.getHost(), instance.getPort(),
+                    settings.getEjectionTime());
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        String key = key(instance);
+        InstanceStats existing = stats.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        double seed = medianEwma();
+        return stats.computeIfAbsent(key, k -> new InstanceStats(seed));
+    }
+
+    private double medianEwma() {
+        double[] known = stats.values().stream()
+                .filter(InstanceStats::hasSamples)
+                .mapToDouble(InstanceStats::ewma)
+                .sorted()
+                .toArray();
+        return known.length == 0 ? 0 : known[known.length / 2];
+    }
+
+    private void retainStats(List<ServiceInstance> available) {
+        List<String> keys = available.stream().map(LatencyAwareLoadBalancer::key).toList();
+        stats.keySet().retainAll(keys);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * EWMA de latencia con decaimiento por tiempo (no por numero de muestras), peticiones en curso
+     * y fallos consecutivos de una instancia.
+     */
+    private final class InstanceStats {
+        private double ewmaNanos;
+        private boolean sampled;
+        private long lastUpdate = System.nanoTime();
+        private int inFlight;
+        private int consecutiveFailures;
+        private long ejectedUntil;
+
+        InstanceStats(double seedNanos) {
+            this.ewmaNanos = seedNanos;
+        }
+
+        synchronized long begin() {
+            inFlight++;
+            return System.nanoTime();
+        }
+
+        synchronized void cancel() {
+            inFlight = Math.max(0, inFlight - 1);
+        }
+
+        /**
+         * @return true si esta respuesta provoco la expulsion de la instancia
+         */
+        synchronized boolean end(long start, boolean failed) {
+            long now = System.nanoTime();
+            inFlight = Math.max(0, inFlight - 1);
+            double weight = Math.exp(-(double) (now - lastUpdate) / settings.getDecayTime().toNanos());
+            ewmaNanos = ewmaNanos * weight + (now - start) * (1 - weight);
+            sampled = true;
+            lastUpdate = now;
+            if (!failed) {
+                consecutiveFailures = 0;
+                return false;
+            }
+            if (++consecutiveFailures < settings.getConsecutiveFailures()) {
+                return false;
+            }
+            consecutiveFailures = 0;
+            ejectedUntil = now + settings.getEjectionTime().toNanos();
+            return true;
+        }
+
+        synchronized boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        synchronized boolean hasSamples() {
+            return sampled;
+        }
+
+        synchronized double ewma() {
+            return ewmaNanos;
+        }
+
+        synchronized double cost() {
+            return ewmaNanos * (inFlight + 1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import com.skoy.bootcamp_microservices.model.DailySketch;
+import com.skoy.bootcamp_microservices.model.ReportJob;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@RequiredArgsConstructor
+public class MongoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * BigDecimal se guarda como Decimal128 (y no como texto) para que $sum y las comparaciones
+     * numericas de los pipelines de agregacion funcionen.
+     */
+    @Bean
+    public static MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new BigDecimalToDecimal128(), new Decimal128ToBigDecimal()));
+    }
+
+    /**
+     * Indices de los que dependen los reportes locales; se crean en segundo plano para no
+     * bloquear el arranque si Mongo aun no esta disponible.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Map<Index, Class<?>> indexes = Map.of(
+                new Index().on("customerId", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("customerId_createdAt_id"), Transaction.class,
+                new Index().on("createdAt", Sort.Direction.ASC).on("productTypeId", Sort.Direction.ASC)
+                        .named("createdAt_productTypeId"), Transaction.class,
+                new Index().on("customerId", Sort.Direction.ASC).on("productTypeId", Sort.Direction.ASC).on("day", Sort.Direction.ASC)
+                        .named("customerId_productTypeId_day"), DailyRollup.class,
+                new Index().on("day", Sort.Direction.ASC).on("productTypeId", Sort.Direction.ASC)
+                        .named("day_productTypeId"), DailyRollup.class,
+                new Index().on("day", Sort.Direction.ASC)
+                        .named("day"), DailySketch.class,
+                new Index().on("activeHash", Sort.Direction.ASC).unique().sparse()
+                        .named("activeHash_unique"), ReportJob.class,
+                new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO)
+                        .named("expiresAt_ttl"), ReportJob.class,
+                new Index().on("status", Sort.Direction.ASC).on("leaseUntil", Sort.Direction.ASC)
+                        .named("status_leaseUntil"), ReportJob.class);
+        Flux.fromIterable(indexes.entrySet())
+                .concatMap(index -> mongoTemplate.indexOps(index.getValue()).ensureIndex(index.getKey()))
+                .subscribe(name -> logger.info("Ensured index {}", name),
+                        ex -> logger.warn("Could not ensure report indexes: {}", ex.toString()));
+    }
+
+    @WritingConverter
+    static class BigDecimalToDecimal128 implements Converter<BigDecimal, Decimal128> {
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    static class Decimal128ToBigDecimal implements Converter<Decimal128, BigDecimal> {
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
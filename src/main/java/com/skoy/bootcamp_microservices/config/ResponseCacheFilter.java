@@ -0,0 +1,145 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.skoy.bootcamp_microservices.service.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * GET de reportes con ETag/Last-Modified: un acierto en {@link ResponseCache} se responde con los bytes
+ * guardados (o 304 si coincide If-None-Match / If-Modified-Since) sin ejecutar el controlador ni Jackson.
+ * No se guardan respuestas distintas de 200 ni las marcadas Cache-Control: no-store (reportes parciales).
+ * Va antes del limite de concurrencia para que los aciertos no consuman cupo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@RequiredArgsConstructor
+public class ResponseCacheFilter implements WebFilter {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET
+                || !path.startsWith(InFlightRequestsFilter.REPORTS_PATH)) {
+            return chain.filter(exchange);
+        }
+        String endpoint = InFlightRequestsFilter.endpoint(path);
+        if (!properties.getEndpoints().contains(endpoint)) {
+            return chain.filter(exchange);
+        }
+        String key = key(request);
+        String customerId = customerId(request, path);
+        ResponseCache.Entry cached = responseCache.get(customerId, key);
+        if (cached != null) {
+            return write(exchange, cached);
+        }
+        long generation = responseCache.generation(customerId);
+        return chain.filter(exchange.mutate().response(new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if ((status != null && status.value() != HttpStatus.OK.value())
+                        || CacheControl.noStore().getHeaderValue().equals(getHeaders().getCacheControl())) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    ResponseCache.Entry entry = responseCache.put(key, endpoint, customerId, getHeaders().getContentType(), bytes, generation);
+                    setHeaders(getHeaders(), entry);
+                    if (notModified(request, entry)) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        return getDelegate().setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        }).build());
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        ServerHttpResponse response = exchange.getResponse();
+        setHeaders(response.getHeaders(), entry);
+        if (notModified(exchange.getRequest(), entry)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(entry.contentType() != null ? entry.contentType() : MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static void setHeaders(HttpHeaders headers, ResponseCache.Entry entry) {
+        headers.setETag(entry.etag());
+        headers.setLastModified(entry.lastModified());
+        headers.setCacheControl(CACHE_CONTROL);
+    }
+
+    private static boolean notModified(ServerHttpRequest request, ResponseCache.Entry entry) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.contains(entry.etag()) || ifNoneMatch.contains("*");
+        }
+        long ifModifiedSince = request.getHeaders().getIfModifiedSince();
+        // Last-Modified tiene resolucion de segundos
+        return ifModifiedSince >= 0 && entry.lastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Ruta, parametros ordenados y Accept: dos URLs equivalentes comparten entrada.
+     */
+    private static String key(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        Map<String, List<String>> params = new TreeMap<>(request.getQueryParams());
+        char separator = '?';
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            key.append(separator).append(param.getKey()).append('=').append(String.join(",", param.getValue()));
+            separator = '&';
+        }
+        List<MediaType> accept = request.getHeaders().getAccept();
+        if (!accept.isEmpty()) {
+            key.append('|').append(MediaType.toString(accept));
+        }
+        return key.toString();
+    }
+
+    /**
+     * El cliente del reporte: parametro customerId o segmento tras el endpoint (/{endpoint}/{customerId}).
+     */
+    private static String customerId(ServerHttpRequest request, String path) {
+        String customerId = request.getQueryParams().getFirst("customerId");
+        if (customerId != null) {
+            return customerId;
+        }
+        String[] segments = path.substring(InFlightRequestsFilter.REPORTS_PATH.length()).split("/");
+        return segments.length > 1 ? segments[1] : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.skoy.bootcamp_microservices.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Cache de respuestas serializadas de reportes (reports.response-cache.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "reports.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(30);
+    private long maxBytes = 64L * 1024 * 1024;
+    // primer segmento tras /api/v1/reports/ de los GET que se cachean
+    private Set<String> endpoints = new LinkedHashSet<>();
+    // endpoints que leen transacciones del servicio remoto: sin change stream solo los invalida
+    // la ingesta local, asi que se guardan transaction-ttl en lugar de ttl
+    private Set<String> transactionEndpoints = new LinkedHashSet<>();
+    private Duration transactionTtl = Duration.ofSeconds(2);
+}
@@ -0,0 +1,95 @@
+package com.skoy.bootcamp_microservices.config;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(WebClientProperties.class)
+public class WebClientConfig {
+
+    @Bean
+    public DownstreamClients downstreamClients(WebClient.Builder webClientBuilder, WebClientProperties properties,
+                                               ReactiveDiscoveryClient discoveryClient, MeterRegistry meterRegistry) {
+        Map<String, WebClient> clients = new LinkedHashMap<>();
+        List<ConnectionProvider> providers = new ArrayList<>();
+        properties.getServices().forEach((service, settings) -> {
+            ConnectionProvider provider = connectionProvider(service, settings);
+            providers.add(provider);
+            WebClient.Builder builder = webClientBuilder.clone()
+                    .baseUrl(settings.getUrl())
+                    .clientConnector(new ReactorClientHttpConnector(httpClient(provider, settings)))
+                    .observationConvention(new DownstreamObservationConvention(service));
+            if (StringUtils.hasText(settings.getAccept())) {
+                builder.defaultHeader(HttpHeaders.ACCEPT, settings.getAccept());
+            }
+            if (StringUtils.hasText(settings.getServiceId())) {
+                builder.filter(new LatencyAwareLoadBalancer(settings.getServiceId(), discoveryClient,
+                        properties.getLoadBalancing(), meterRegistry));
+            }
+            clients.put(service, builder.build());
+        });
+        return new DownstreamClients(clients, providers);
+    }
+
+    /**
+     * Agrega la etiqueta downstream.service a http.client.requests para separar la latencia por servicio.
+     */
+    private static final class DownstreamObservationConvention extends DefaultClientRequestObservationConvention {
+
+        private final String service;
+
+        private DownstreamObservationConvention(String service) {
+            this.service = service;
+        }
+
+        @Override
+        public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+            return super.getLowCardinalityKeyValues(context).and("downstream.service", service);
+        }
+    }
+
+    private ConnectionProvider connectionProvider(String service, WebClientProperties.Settings settings) {
+        // metrics(true) publica reactor.netty.connection.provider.* (activas, ociosas, adquisiciones pendientes)
+        return ConnectionProvider.builder(service + "-pool")
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    private HttpClient httpClient(ConnectionProvider provider, WebClientProperties.Settings settings) {
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, settings.isKeepAlive())
+                .keepAlive(settings.isKeepAlive())
+                .responseTimeout(settings.getResponseTimeout())
+                .compress(settings.isCompress());
+        if (settings.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+}
@@ -0,0 +1,59 @@
+package com.skoy.bootcamp_microservices.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ajustes de conexion por servicio remoto (clients.&lt;servicio&gt;.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "clients")
+public class WebClientProperties {
+
+    private Map<String, Settings> services = new LinkedHashMap<>();
+    private LoadBalancing loadBalancing = new LoadBalancing();
+
+    @Data
+    public static class Settings {
+        private String url;
+        // id en discovery; si no tiene instancias se usa el host de url
+        private String serviceId;
+        private int maxConnections = 500;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        private boolean keepAlive = true;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(10);
+        private boolean http2 = false;
+        // Envia Accept-Encoding: gzip y descomprime. Solo ahorra si el servicio responde comprimido, lo que
+        // en Boot exige server.compression.enabled en ese servicio (viene apagado); si no, el cuerpo llega
+        // igual y no cuesta nada. Netty quita Content-Encoding al descomprimir, asi que no se mide aqui.
+        private boolean compress = true;
+        // Accept por defecto, p. ej. Smile/CBOR con JSON como alternativa si el servicio lo soporta
+        private String accept;
+        // politicas de ResilientCalls
+        private Duration callTimeout = Duration.ofSeconds(3);
+        // activa la cobertura de GETs; es el retraso hasta que ResilientCalls tiene el p95 de la llamada principal
+        private Duration hedgeDelay;
+    }
+
+    /**
+     * Seleccion de instancia de LatencyAwareLoadBalancer (clients.load-balancing.*).
+     */
+    @Data
+    public static class LoadBalancing {
+        private Duration instancesRefresh = Duration.ofSeconds(5);
+        // constante de tiempo del EWMA de latencia
+        private Duration decayTime = Duration.ofSeconds(10);
+        private int consecutiveFailures = 5;
+        private Duration ejectionTime = Duration.ofSeconds(30);
+        private int maxEjectionPercent = 50;
+    }
+}
@@ -0,0 +1,54 @@
+package com.skoy.bootcamp_microservices.controller;
+
+import com.skoy.bootcamp_microservices.service.DownstreamCache;
+import com.skoy.bootcamp_microservices.service.ResponseCache;
+import com.skoy.bootcamp_microservices.service.RollupService;
+import com.skoy.bootcamp_microservices.service.SketchService;
+import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+
+@RestController
+@RequestMapping("/api/v1/reports/admin")
+@RequiredArgsConstructor
+public class ReportAdminController {
+
+    private final DownstreamCache downstreamCache;
+    private final ResponseCache responseCache;
+    private final RollupService rollupService;
+    private final SketchService sketchService;
+
+    @DeleteMapping("/cache/customers/{customerId}")
+    public Mono<ApiResponse<String>> invalidateCustomer(@PathVariable String customerId) {
+        downstreamCache.invalidateCustomer(customerId);
+        responseCache.invalidateCustomer(customerId);
+        return Mono.just(new ApiResponse<>("Success", customerId, 200));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public Mono<ApiResponse<Long>> rebuildRollups(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return rollupService.rebuild(from, to != null ? to : LocalDate.now())
+                .map(written -> new ApiResponse<>("Success", written, 200));
+    }
+
+    @PostMapping("/sketches/rebuild")
+    public Mono<ApiResponse<Long>> rebuildSketches(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return sketchService.rebuild(from, to != null ? to : LocalDate.now())
+                .map(written -> new ApiResponse<>("Success", written, 200));
+    }
+
+}
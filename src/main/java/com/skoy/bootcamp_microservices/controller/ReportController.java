@@ -1,19 +1,34 @@
 package com.skoy.bootcamp_microservices.controller;
 
+import com.skoy.bootcamp_microservices.dto.BatchResult;
+import com.skoy.bootcamp_microservices.dto.DistributionReport;
+import com.skoy.bootcamp_microservices.dto.SectionedReport;
 import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.model.Transaction;
 import com.skoy.bootcamp_microservices.service.IReportService;
+import com.skoy.bootcamp_microservices.service.SketchService;
 import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import com.skoy.bootcamp_microservices.utils.ExportCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 @RestController
@@ -21,10 +36,27 @@ import java.util.Map;
 public class ReportController {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+    private static final Set<String> EXPORT_FIELDS = Set.of("id", "customerId", "productType", "productTypeId",
+            "transactionType", "cardType", "cardId", "amount", "status", "createdAt", "commissionAmount");
 
     @Autowired
     private IReportService service;
 
+    @Autowired
+    private SketchService sketchService;
+
+    @Value("${reports.last-transactions.max-n:500}")
+    private int maxLastTransactions;
+
+    @Value("${reports.partial-responses:false}")
+    private boolean partialResponses;
+
+    @Value("${reports.export.batch-size:500}")
+    private int defaultExportBatchSize;
+
+    @Value("${reports.export.max-batch-size:5000}")
+    private int maxExportBatchSize;
+
 
     @GetMapping("/daily-average-balances/{customerId}")
     public Mono<ApiResponse<Map<String, BigDecimal>>> getDailyAverageBalances(@PathVariable String customerId) {
@@ -32,6 +64,26 @@ public class ReportController {
                 .map(data -> new ApiResponse<>("Success", data, 200));
     }
 
+    @PostMapping(value = "/daily-average-balances/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchResult<Map<String, BigDecimal>>> getDailyAverageBalancesBatch(@RequestBody List<String> customerIds) {
+        return service.getDailyAverageBalancesBatch(Flux.fromIterable(customerIds));
+    }
+
+    @PostMapping(value = "/daily-average-balances/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchResult<Map<String, BigDecimal>>> streamDailyAverageBalancesBatch(@RequestBody Flux<String> customerIds) {
+        return service.getDailyAverageBalancesBatch(customerIds.map(ReportController::customerIdLine));
+    }
+
+    @GetMapping("/closing-balances/{customerId}")
+    public Mono<ApiResponse<Map<String, BigDecimal>>> getClosingBalances(
+            @PathVariable String customerId,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return service.getClosingBalances(customerId, date != null ? date : LocalDate.now())
+                .map(data -> new ApiResponse<>("Success", data, 200));
+    }
+
     @GetMapping("/commissions-by-product")
     public Mono<ApiResponse<Map<String, BigDecimal>>> getCommissionsByProduct(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -40,19 +92,46 @@ public class ReportController {
                 .map(data -> new ApiResponse<>("Success", data, 200));
     }
 
-    @GetMapping("/customer-summary/{customerId}")
-    public Mono<ApiResponse<Map<String, Object>>> getCustomerSummary(@PathVariable String customerId) {
-        return service.getCustomerSummary(customerId)
+    @GetMapping("/distributions")
+    public Mono<ApiResponse<DistributionReport>> getDistributions(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return sketchService.distribution(startDate, endDate)
                 .map(data -> new ApiResponse<>("Success", data, 200));
     }
 
+    @GetMapping("/customer-summary/{customerId}")
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> getCustomerSummary(
+            @PathVariable String customerId,
+            @RequestParam(value = "partial", required = false) Boolean partial) {
+        return service.getCustomerSummary(customerId, partial != null ? partial : partialResponses)
+                .map(this::toResponse);
+    }
+
+    @PostMapping(value = "/customer-summary/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchResult<Map<String, Object>>> getCustomerSummaries(
+            @RequestBody List<String> customerIds,
+            @RequestParam(value = "partial", required = false) Boolean partial) {
+        return service.getCustomerSummaries(Flux.fromIterable(customerIds), partial != null ? partial : partialResponses);
+    }
+
+    @PostMapping(value = "/customer-summary/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchResult<Map<String, Object>>> streamCustomerSummaries(
+            @RequestBody Flux<String> customerIds,
+            @RequestParam(value = "partial", required = false) Boolean partial) {
+        return service.getCustomerSummaries(customerIds.map(ReportController::customerIdLine), partial != null ? partial : partialResponses);
+    }
+
     @GetMapping("/general-report-by-product")
-    public Mono<ApiResponse<Map<String, Object>>> getGeneralReportByProduct(
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> getGeneralReportByProduct(
             @RequestParam("customerId") String customerId,
             @RequestParam("dateFrom") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
-            @RequestParam("dateTo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo) {
-        return service.getGeneralReportByProduct(customerId, dateFrom, dateTo)
-                .map(data -> new ApiResponse<>("Success", data, 200));
+            @RequestParam("dateTo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(value = "partial", required = false) Boolean partial) {
+        return service.getGeneralReportByProduct(customerId, dateFrom, dateTo, partial != null ? partial : partialResponses)
+                .map(this::toResponse);
     }
 
 
@@ -62,5 +141,87 @@ public class ReportController {
                 .map(data -> new ApiResponse<>("Success", data, 200));
     }
 
+    @GetMapping("/last-n-transactions/{customerId}")
+    public Mono<ApiResponse<Map<String, List<TransactionDTO>>>> getLastTransactions(
+            @PathVariable String customerId,
+            @RequestParam(value = "n", defaultValue = "10") int n,
+            @RequestParam(value = "cardType", required = false) Transaction.CardTypeEnum cardType) {
+        int limit = Math.max(1, Math.min(n, maxLastTransactions));
+        return service.getLastTransactions(customerId, limit, cardType)
+                .map(data -> new ApiResponse<>("Success", data, 200));
+    }
+
+    /**
+     * Una linea NDJSON con un customerId, entre comillas o no.
+     */
+    private static String customerIdLine(String line) {
+        String customerId = line.trim();
+        if (customerId.length() >= 2 && customerId.startsWith("\"") && customerId.endsWith("\"")) {
+            customerId = customerId.substring(1, customerId.length() - 1);
+        }
+        return customerId;
+    }
+
+    @GetMapping(value = "/export/{customerId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDTO> exportTransactions(
+            @PathVariable String customerId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize) {
+        return service.exportByCustomerId(customerId, exportCursor(cursor), exportFields(fields), exportBatchSize(batchSize));
+    }
+
+    @GetMapping(value = "/export/{customerId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TransactionDTO>> streamTransactions(
+            @PathVariable String customerId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize) {
+        ExportCursor after = exportCursor(lastEventId != null ? lastEventId : cursor);
+        return service.exportByCustomerId(customerId, after, exportFields(fields), exportBatchSize(batchSize))
+                .map(transaction -> ServerSentEvent.builder(transaction)
+                        .id(new ExportCursor(transaction.getCreatedAt(), transaction.getId()).encode())
+                        .build());
+    }
+
+    private static ExportCursor exportCursor(String cursor) {
+        try {
+            return ExportCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid export cursor", ex);
+        }
+    }
+
+    private int exportBatchSize(Integer batchSize) {
+        if (batchSize == null) {
+            return defaultExportBatchSize;
+        }
+        return Math.max(1, Math.min(batchSize, maxExportBatchSize));
+    }
+
+    private static List<String> exportFields(List<String> fields) {
+        if (fields == null) {
+            return List.of();
+        }
+        for (String field : fields) {
+            if (!EXPORT_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export field: " + field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Un reporte parcial sale con Cache-Control: no-store para que no quede en la cache de respuestas.
+     */
+    private ResponseEntity<ApiResponse<Map<String, Object>>> toResponse(SectionedReport report) {
+        if (report.isComplete()) {
+            return ResponseEntity.ok(new ApiResponse<>("Success", report.getData(), 200, report.getSections()));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new ApiResponse<>("Partial", report.getData(), 200, report.getSections()));
+    }
 
 }
@@ -0,0 +1,132 @@
+package com.skoy.bootcamp_microservices.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.skoy.bootcamp_microservices.dto.ReportJobDTO;
+import com.skoy.bootcamp_microservices.enums.ReportJobStatusEnum;
+import com.skoy.bootcamp_microservices.enums.ReportJobTypeEnum;
+import com.skoy.bootcamp_microservices.mapper.ReportJobMapper;
+import com.skoy.bootcamp_microservices.model.ReportJob;
+import com.skoy.bootcamp_microservices.service.ReportJobService;
+import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import com.skoy.bootcamp_microservices.utils.Constants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Version asincrona de los reportes de rango amplio: se envia el job, se consulta su estado
+ * y se obtiene el resultado cuando termina (o se sigue por SSE).
+ */
+@RestController
+@RequestMapping("/api/v1/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String DEFAULT_TENANT = "default";
+
+    private final ReportJobService jobService;
+
+    @Value("${reports.jobs.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @PostMapping("/commissions-by-product")
+    public Mono<ResponseEntity<ApiResponse<ReportJobDTO>>> submitCommissionsByProduct(
+            @RequestHeader(value = TENANT_HEADER, defaultValue = DEFAULT_TENANT) String tenantId,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return submit(tenantId, ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT,
+                Map.of("startDate", startDate.toString(), "endDate", endDate.toString()));
+    }
+
+    @PostMapping("/general-report-by-product")
+    public Mono<ResponseEntity<ApiResponse<ReportJobDTO>>> submitGeneralReportByProduct(
+            @RequestHeader(value = TENANT_HEADER, defaultValue = DEFAULT_TENANT) String tenantId,
+            @RequestParam("customerId") String customerId,
+            @RequestParam("dateFrom") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam("dateTo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(value = "partial", defaultValue = "false") boolean partial) {
+        return submit(tenantId, ReportJobTypeEnum.GENERAL_REPORT_BY_PRODUCT, Map.of("customerId", customerId,
+                "dateFrom", dateFrom.toString(), "dateTo", dateTo.toString(), "partial", String.valueOf(partial)));
+    }
+
+    @GetMapping("/{jobId}")
+    public Mono<ApiResponse<ReportJobDTO>> getJob(
+            @RequestHeader(value = TENANT_HEADER, defaultValue = DEFAULT_TENANT) String tenantId,
+            @PathVariable String jobId) {
+        return find(tenantId, jobId).map(job -> new ApiResponse<>("Success", ReportJobMapper.toDto(job), 200));
+    }
+
+    @GetMapping("/{jobId}/result")
+    public Mono<ResponseEntity<ApiResponse<JsonNode>>> getResult(
+            @RequestHeader(value = TENANT_HEADER, defaultValue = DEFAULT_TENANT) String tenantId,
+            @PathVariable String jobId) {
+        return find(tenantId, jobId).flatMap(job -> switch (job.getStatus()) {
+            case DONE -> jobService.readResult(job)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .map(result -> ResponseEntity.ok(new ApiResponse<>("Success", result.orElse(null), 200, job.getSections())));
+            case FAILED -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<JsonNode>(job.getError(), null, Constants.STATUS_E500)));
+            default -> Mono.just(ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<JsonNode>("Job " + job.getStatus(), null, 202)));
+        });
+    }
+
+    /**
+     * Emite el estado cada vez que cambia y, al terminar, un evento "result" con el resultado.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamJob(
+            @RequestHeader(value = TENANT_HEADER, defaultValue = DEFAULT_TENANT) String tenantId,
+            @PathVariable String jobId) {
+        return find(tenantId, jobId)
+                .flatMapMany(first -> Flux.interval(Duration.ZERO, pollInterval)
+                        .concatMap(tick -> jobService.findById(tenantId, jobId))
+                        .distinctUntilChanged(job -> job.getStatus() + ":" + job.getProgress())
+                        .takeUntil(job -> job.getStatus().isFinished()))
+                .concatMap(job -> {
+                    ServerSentEvent<Object> status = ServerSentEvent.builder((Object) ReportJobMapper.toDto(job))
+                            .event("status")
+                            .build();
+                    if (job.getStatus() != ReportJobStatusEnum.DONE) {
+                        return Flux.just(status);
+                    }
+                    return Flux.concat(Mono.just(status), jobService.readResult(job)
+                            .map(result -> ServerSentEvent.builder((Object) result).event("result").build()));
+                });
+    }
+
+    private Mono<ResponseEntity<ApiResponse<ReportJobDTO>>> submit(String tenantId, ReportJobTypeEnum type, Map<String, String> params) {
+        return jobService.submit(tenantId, type, params)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(new ApiResponse<>("Accepted", ReportJobMapper.toDto(job), 202)));
+    }
+
+    /**
+     * Un job de otro tenant responde 404, igual que uno inexistente, para no revelar ids ajenos.
+     */
+    private Mono<ReportJob> find(String tenantId, String jobId) {
+        return jobService.findById(tenantId, jobId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found")));
+    }
+}
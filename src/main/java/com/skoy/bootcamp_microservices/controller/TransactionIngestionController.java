@@ -0,0 +1,56 @@
+package com.skoy.bootcamp_microservices.controller;
+
+import com.skoy.bootcamp_microservices.dto.IngestionResult;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.mapper.TransactionMapper;
+import com.skoy.bootcamp_microservices.service.TransactionIngestionService;
+import com.skoy.bootcamp_microservices.utils.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Ingesta de eventos de transacciones hacia la coleccion local que usan los reportes.
+ */
+@RestController
+@RequestMapping("/api/v1/ingestion/transactions")
+@RequiredArgsConstructor
+public class TransactionIngestionController {
+
+    private final TransactionIngestionService ingestionService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ApiResponse<IngestionResult>>> ingest(@RequestBody TransactionDTO transaction) {
+        if (transaction.getId() == null || transaction.getId().isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transaction id is required"));
+        }
+        return ingestionService.submit(TransactionMapper.toEntity(transaction))
+                .map(result -> ResponseEntity.ok(new ApiResponse<>("Success", result, 200)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new ApiResponse<>("Ingestion queue is full", null, 503)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ApiResponse<IngestionResult>> ingestBatch(@RequestBody List<TransactionDTO> transactions) {
+        return ingestionService.ingest(Flux.fromIterable(transactions).map(TransactionMapper::toEntity))
+                .map(result -> new ApiResponse<>("Success", result, 200));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ApiResponse<IngestionResult>> streamBatch(@RequestBody Flux<TransactionDTO> transactions) {
+        return ingestionService.ingest(transactions.map(TransactionMapper::toEntity))
+                .map(result -> new ApiResponse<>("Success", result, 200));
+    }
+}
@@ -0,0 +1,24 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Resultado de un cliente dentro de un reporte por lotes; se emite apenas termina.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult<T> {
+    private String customerId;
+    private String message;
+    private int statusCode;
+    private T data;
+    private Map<String, SectionStatusEnum> sections;
+}
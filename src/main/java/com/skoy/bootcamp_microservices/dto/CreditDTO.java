@@ -2,6 +2,7 @@ package com.skoy.bootcamp_microservices.dto;
 
 import com.skoy.bootcamp_microservices.enums.CreditTypeEnum;
 import com.skoy.bootcamp_microservices.enums.CurrencyEnum;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import java.math.BigDecimal;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CreditDTO {
     private String id;
     private String customerId;
@@ -0,0 +1,19 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionReport {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long days;
+    private long daysComputed;
+    private Map<String, ProductDistribution> products;
+}
@@ -0,0 +1,24 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conteo de una ingesta: nuevas, ya existentes (mismo id), invalidas y fallidas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionResult {
+    private long received;
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private long failed;
+
+    public IngestionResult merge(IngestionResult other) {
+        return new IngestionResult(received + other.received, inserted + other.inserted,
+                duplicates + other.duplicates, rejected + other.rejected, failed + other.failed);
+    }
+}
@@ -0,0 +1,66 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Distribucion aproximada de las transacciones de un tipo de producto. Los cuantiles tienen un error
+ * de rango de quantileRankError (99% de confianza), los clientes distintos se dan con cotas a 2
+ * desviaciones (~95%) y la frecuencia de cada cuenta puede estar subestimada hasta topAccountsMaxError.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDistribution {
+    private long transactions;
+    private Quantiles amount;
+    private Quantiles commission;
+    private Estimate distinctCustomers;
+    private List<HeavyHitter> topAccounts;
+    private ErrorBounds errorBounds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quantiles {
+        private long count;
+        private double min;
+        private double p50;
+        private double p90;
+        private double p95;
+        private double p99;
+        private double max;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Estimate {
+        private double estimate;
+        private double lowerBound;
+        private double upperBound;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeavyHitter {
+        private String accountId;
+        private long estimate;
+        private long lowerBound;
+        private long upperBound;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorBounds {
+        private double quantileRankError;
+        private double quantileConfidence;
+        private double distinctConfidence;
+        private long topAccountsMaxError;
+    }
+}
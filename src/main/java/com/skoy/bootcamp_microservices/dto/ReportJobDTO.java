@@ -0,0 +1,29 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skoy.bootcamp_microservices.enums.ReportJobStatusEnum;
+import com.skoy.bootcamp_microservices.enums.ReportJobTypeEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Estado de un job de reporte, sin el resultado.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJobDTO {
+    private String id;
+    private ReportJobTypeEnum type;
+    private Map<String, String> params;
+    private ReportJobStatusEnum status;
+    private int progress;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+}
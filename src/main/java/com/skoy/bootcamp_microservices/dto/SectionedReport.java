@@ -0,0 +1,30 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reporte compuesto por secciones obtenidas de distintos servicios, con el estado de cada una.
+ */
+@Data
+@NoArgsConstructor
+public class SectionedReport {
+    private Map<String, Object> data = new HashMap<>();
+    private Map<String, SectionStatusEnum> sections = new LinkedHashMap<>();
+
+    public void add(String section, Object value, SectionStatusEnum status) {
+        if (status == SectionStatusEnum.OK) {
+            data.put(section, value);
+        }
+        sections.put(section, status);
+    }
+
+    public boolean isComplete() {
+        return sections.values().stream().allMatch(status -> status == SectionStatusEnum.OK);
+    }
+}
@@ -0,0 +1,28 @@
+package com.skoy.bootcamp_microservices.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Clientes con transacciones nuevas o modificadas (una ventana del change stream o un lote ingerido).
+ * allCustomers indica cambios sin cliente identificable (borrados, drop de la coleccion).
+ * earliestDay es el dia mas antiguo afectado, o null si no se conoce.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionsChangedEvent {
+    private final Set<String> customerIds;
+    private final boolean allCustomers;
+    private final LocalDate earliestDay;
+
+    public boolean affects(String customerId) {
+        return allCustomers || customerIds.contains(customerId);
+    }
+
+    public boolean mayAffectBefore(LocalDate day) {
+        return allCustomers || earliestDay == null || earliestDay.isBefore(day);
+    }
+}
@@ -0,0 +1,7 @@
+package com.skoy.bootcamp_microservices.enums;
+
+public enum ReportEngineEnum {
+    HTTP,  // transacciones leidas del servicio de transacciones y reducidas en Java
+    MONGO, // pipelines de agregacion sobre la coleccion local de transacciones
+    ROLLUP // agregados diarios precalculados (daily_rollups)
+}
@@ -0,0 +1,12 @@
+package com.skoy.bootcamp_microservices.enums;
+
+public enum ReportJobStatusEnum {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,6 @@
+package com.skoy.bootcamp_microservices.enums;
+
+public enum ReportJobTypeEnum {
+    COMMISSIONS_BY_PRODUCT,
+    GENERAL_REPORT_BY_PRODUCT
+}
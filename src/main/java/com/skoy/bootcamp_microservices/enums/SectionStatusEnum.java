@@ -0,0 +1,23 @@
+package com.skoy.bootcamp_microservices.enums;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+import java.util.concurrent.TimeoutException;
+
+public enum SectionStatusEnum {
+    OK,
+    TIMEOUT,
+    UNAVAILABLE, // circuito abierto o bulkhead lleno
+    ERROR;
+
+    public static SectionStatusEnum of(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return TIMEOUT;
+        }
+        if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+            return UNAVAILABLE;
+        }
+        return ERROR;
+    }
+}
@@ -0,0 +1,6 @@
+package com.skoy.bootcamp_microservices.enums;
+
+public enum TransactionQueryModeEnum {
+    FILTERED, // el servicio de transacciones filtra por rango y comision
+    PAGED     // paginado por ventanas, filtrando localmente
+}
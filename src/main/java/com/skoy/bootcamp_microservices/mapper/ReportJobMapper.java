@@ -0,0 +1,22 @@
+package com.skoy.bootcamp_microservices.mapper;
+
+import com.skoy.bootcamp_microservices.dto.ReportJobDTO;
+import com.skoy.bootcamp_microservices.model.ReportJob;
+
+public class ReportJobMapper {
+
+    public static ReportJobDTO toDto(ReportJob job) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setParams(job.getParams());
+        dto.setStatus(job.getStatus());
+        dto.setProgress(job.getProgress());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setExpiresAt(job.getExpiresAt());
+        return dto;
+    }
+}
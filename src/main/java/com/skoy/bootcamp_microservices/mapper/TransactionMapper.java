@@ -1,31 +1,42 @@
 package com.skoy.bootcamp_microservices.mapper;
 
 import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionStatusEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionTypeEnum;
 import com.skoy.bootcamp_microservices.model.Transaction;
 
 public class TransactionMapper {
 
     public static Transaction toEntity(TransactionDTO dto) {
         Transaction item = new Transaction();
-//        item.setId(dto.getId());
-//        item.setProductTypeId(dto.getProductTypeId());
-//        item.setProductType(dto.getProductType());
-//        item.setCustomerId(dto.getCustomerId());
-//        item.setTransactionType(dto.getTransactionType());
-//        item.setAmount(dto.getAmount());
-//        item.setStatus(dto.getStatus());
+        item.setId(dto.getId());
+        item.setProductTypeId(dto.getProductTypeId());
+        item.setProductType(dto.getProductType() == null ? null : Transaction.ProductTypeEnum.valueOf(dto.getProductType().name()));
+        item.setCustomerId(dto.getCustomerId());
+        item.setTransactionType(dto.getTransactionType() == null ? null : Transaction.TransactionTypeEnum.valueOf(dto.getTransactionType().name()));
+        item.setCardType(dto.getCardType());
+        item.setCardId(dto.getCardId());
+        item.setAmount(dto.getAmount());
+        item.setStatus(dto.getStatus() == null ? null : Transaction.TransactionStatusEnum.valueOf(dto.getStatus().name()));
+        item.setCreatedAt(dto.getCreatedAt());
+        item.setCommissionAmount(dto.getCommissionAmount());
         return item;
     }
 
     public static TransactionDTO toDto(Transaction item) {
         TransactionDTO dto = new TransactionDTO();
-//        dto.setId(item.getId());
-//        dto.setProductTypeId(item.getProductTypeId());
-//        dto.setProductType(item.getProductType());
-//        dto.setCustomerId(item.getCustomerId());
-//        dto.setTransactionType(item.getTransactionType());
-//        dto.setAmount(item.getAmount());
-//        dto.setStatus(item.getStatus());
+        dto.setId(item.getId());
+        dto.setProductTypeId(item.getProductTypeId());
+        dto.setProductType(item.getProductType() == null ? null : ProductTypeEnum.valueOf(item.getProductType().name()));
+        dto.setCustomerId(item.getCustomerId());
+        dto.setTransactionType(item.getTransactionType() == null ? null : TransactionTypeEnum.valueOf(item.getTransactionType().name()));
+        dto.setCardType(item.getCardType());
+        dto.setCardId(item.getCardId());
+        dto.setAmount(item.getAmount());
+        dto.setStatus(item.getStatus() == null ? null : TransactionStatusEnum.valueOf(item.getStatus().name()));
+        dto.setCreatedAt(item.getCreatedAt());
+        dto.setCommissionAmount(item.getCommissionAmount());
         return dto;
     }
 }
@@ -0,0 +1,23 @@
+package com.skoy.bootcamp_microservices.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ultimo resume token procesado de un change stream, para retomarlo tras un reinicio.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "change_stream_tokens")
+public class ChangeStreamToken {
+    @Id
+    private String id;
+    private org.bson.Document token;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.skoy.bootcamp_microservices.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado diario por (customerId, productTypeId, day). El saldo de cierre de un dia no se guarda:
+ * es la suma de amountTotal hasta ese dia y se calcula al leer.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "daily_rollups")
+public class DailyRollup {
+    @Id
+    private String id;
+    private String customerId;
+    private String productTypeId;
+    private LocalDate day;
+    private BigDecimal amountTotal = BigDecimal.ZERO;
+    private BigDecimal commissionTotal = BigDecimal.ZERO;
+    private long count;
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String customerId, String productTypeId, LocalDate day) {
+        return customerId + "|" + productTypeId + "|" + day;
+    }
+}
@@ -0,0 +1,38 @@
+package com.skoy.bootcamp_microservices.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Sketches serializados de un dia cerrado, por tipo de producto. Un dia sin transacciones se
+ * guarda con products vacio para no volver a calcularlo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "daily_sketches")
+public class DailySketch {
+    @Id
+    private String id;
+    private LocalDate day;
+    private Map<String, Product> products;
+    private LocalDateTime updatedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Product {
+        private long count;
+        private byte[] amounts;
+        private byte[] commissions;
+        private byte[] customers;
+        private byte[] accounts;
+    }
+}
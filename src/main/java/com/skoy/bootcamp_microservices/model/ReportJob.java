@@ -0,0 +1,44 @@
+package com.skoy.bootcamp_microservices.model;
+
+import com.skoy.bootcamp_microservices.enums.ReportJobStatusEnum;
+import com.skoy.bootcamp_microservices.enums.ReportJobTypeEnum;
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Reporte pesado ejecutado en segundo plano. activeHash solo existe mientras el job esta
+ * en cola o en curso (indice unico disperso) y es lo que deduplica envios identicos.
+ * Mongo borra el documento al llegar a expiresAt. ownerId/leaseUntil indican que instancia tiene
+ * el job en su cola; un lease vencido permite que otra lo reclame.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "report_jobs")
+public class ReportJob {
+    @Id
+    private String id;
+    private String tenantId;
+    private ReportJobTypeEnum type;
+    private Map<String, String> params;
+    private String requestHash;
+    private String activeHash;
+    private ReportJobStatusEnum status;
+    private int progress;
+    private int attempts;
+    private String ownerId;
+    private LocalDateTime leaseUntil;
+    private String result; // JSON del resultado; evita depender del mapeo de tipos de Mongo
+    private String resultFileId; // resultado en GridFS cuando supera reports.jobs.inline-result-max-bytes
+    private Map<String, SectionStatusEnum> sections;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+}
@@ -43,7 +43,8 @@ public class Transaction {
     public enum TransactionTypeEnum {
         DEPOSIT("Deposito"),
         WITHDRAWAL("Retiro"),
-        TRANSFER("Transferencia");
+        TRANSFER("Transferencia"),
+        COMMISSION("COMMISSION");
 
         private final String name;
 
@@ -76,10 +77,10 @@ public class Transaction {
         }
     }
 
-    public static Mono<Void> createTransaction(WebClient.Builder webClientBuilder, Transaction transactionDataSend) {
-        return webClientBuilder.build()
+    public static Mono<Void> createTransaction(WebClient transactionClient, Transaction transactionDataSend) {
+        return transactionClient
                 .post()
-                .uri("http://localhost:9004/api/v1/transactions")
+                .uri("/transactions")
                 .bodyValue(transactionDataSend)
                 .retrieve()
                 .bodyToMono(Void.class);
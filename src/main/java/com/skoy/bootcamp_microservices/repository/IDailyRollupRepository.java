@@ -0,0 +1,7 @@
+package com.skoy.bootcamp_microservices.repository;
+
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface IDailyRollupRepository extends ReactiveMongoRepository<DailyRollup, String> {
+}
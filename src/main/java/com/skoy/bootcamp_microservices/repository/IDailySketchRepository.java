@@ -0,0 +1,17 @@
+package com.skoy.bootcamp_microservices.repository;
+
+import com.skoy.bootcamp_microservices.model.DailySketch;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface IDailySketchRepository extends ReactiveMongoRepository<DailySketch, String> {
+    // Dos criterios derivados sobre el mismo campo no se pueden combinar en un Document
+    @Query("{ 'day': { '$gte': ?0, '$lte': ?1 } }")
+    Flux<DailySketch> findByDayGreaterThanEqualAndDayLessThanEqual(LocalDate from, LocalDate to);
+
+    Mono<Long> deleteByDayGreaterThanEqual(LocalDate from);
+}
@@ -0,0 +1,172 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skoy.bootcamp_microservices.config.CacheProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Cache reactiva para lecturas a servicios remotos. Las claves empiezan por el customerId
+ * (opcionalmente seguido de {@link #KEY_SEPARATOR} y mas partes) para poder invalidar por cliente.
+ * Varios fallos concurrentes sobre la misma clave comparten una unica llamada en curso, que se
+ * ejecuta con el Context de Reactor del llamador que la inicio (observacion padre, Deadline).
+ * Una carga que termina despues de invalidar su cliente no se queda en la cache.
+ */
+@Component
+@EnableConfigurationProperties(CacheProperties.class)
+public class DownstreamCache {
+
+    public static final String KEY_SEPARATOR = ":";
+
+    // Generaciones de invalidacion por grupo de clientes (hash del customerId)
+    private static final int GENERATION_STRIPES = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamCache.class);
+
+    private final Map<String, AsyncCache<String, Entry>> caches = new HashMap<>();
+    private final Map<String, CacheProperties.Spec> specs = new HashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public DownstreamCache(CacheProperties properties, MeterRegistry meterRegistry) {
+        properties.getServices().forEach((name, spec) -> {
+            if (!spec.isEnabled()) {
+                return;
+            }
+            long expireNanos = spec.getTtl().toNanos()
+                    + (spec.isStaleWhileRevalidate() ? spec.getStaleTtl().toNanos() : 0);
+            AsyncCache<String, Entry> cache = Caffeine.newBuilder()
+                    .maximumSize(spec.getMaxSize())
+                    .expireAfterWrite(Duration.ofNanos(expireNanos))
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "downstream." + name);
+            caches.put(name, cache);
+            specs.put(name, spec);
+        });
+    }
+
+    public static String key(String customerId, Object... parts) {
+        StringBuilder key = new StringBuilder(customerId);
+        for (Object part : parts) {
+            key.append(KEY_SEPARATOR).append(part);
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> get(String cacheName, String key, Supplier<Mono<V>> loader) {
+        AsyncCache<String, Entry> cache = caches.get(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        CacheProperties.Spec spec = specs.get(cacheName);
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> cache.get(key, (k, executor) -> loadInto(cache, key, loader, context)), true)
+                .map(entry -> {
+                    if (spec.isStaleWhileRevalidate() && entry.isOlderThan(spec.getTtl().toNanos())) {
+                        revalidate(cacheName, cache, key, loader, context);
+                    }
+                    return (V) entry.value();
+                }));
+    }
+
+    /**
+     * Elimina de todas las caches las entradas del cliente indicado.
+     */
+    public void invalidateCustomer(String customerId) {
+        // primero la generacion: una carga en curso que termine despues ya no se guarda
+        generations.incrementAndGet(stripe(customerId));
+        String prefix = customerId + KEY_SEPARATOR;
+        caches.values().forEach(cache -> cache.asMap().keySet()
+                .removeIf(key -> key.equals(customerId) || key.startsWith(prefix)));
+    }
+
+    /**
+     * Los saldos de cuentas y creditos cambian con cada transaccion del cliente.
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (event.isAllCustomers()) {
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations.incrementAndGet(stripe);
+            }
+            caches.values().forEach(cache -> cache.synchronous().invalidateAll());
+            return;
+        }
+        event.getCustomerIds().forEach(this::invalidateCustomer);
+    }
+
+    private <V> CompletableFuture<Entry> loadInto(AsyncCache<String, Entry> cache, String key, Supplier<Mono<V>> loader,
+                                                  ContextView context) {
+        long generation = generation(key);
+        CompletableFuture<Entry> future = load(loader, context);
+        future.whenComplete((entry, ex) -> {
+            if (generation(key) != generation) {
+                cache.asMap().remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private <V> void revalidate(String cacheName, AsyncCache<String, Entry> cache, String key, Supplier<Mono<V>> loader,
+                                ContextView context) {
+        String refreshKey = cacheName + KEY_SEPARATOR + key;
+        if (!refreshing.add(refreshKey)) {
+            return;
+        }
+        long generation = generation(key);
+        load(loader, context).whenComplete((entry, ex) -> {
+            if (ex == null) {
+                // se guarda y se comprueba despues: una invalidacion entre medias retira el valor
+                CompletableFuture<Entry> refreshed = CompletableFuture.completedFuture(entry);
+                cache.put(key, refreshed);
+                if (generation(key) != generation) {
+                    cache.asMap().remove(key, refreshed);
+                }
+            } else {
+                logger.warn("Background refresh of {} [{}] failed: {}", cacheName, key, ex.toString());
+            }
+            refreshing.remove(refreshKey);
+        });
+    }
+
+    private <V> CompletableFuture<Entry> load(Supplier<Mono<V>> loader, ContextView context) {
+        return Mono.defer(loader)
+                .map(value -> new Entry(value, System.nanoTime()))
+                .contextWrite(context)
+                .toFuture();
+    }
+
+    private long generation(String key) {
+        int separator = key.indexOf(KEY_SEPARATOR);
+        return generations.get(stripe(separator < 0 ? key : key.substring(0, separator)));
+    }
+
+    private static int stripe(String customerId) {
+        return customerId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private record Entry(Object value, long loadedAtNanos) {
+        boolean isOlderThan(long nanos) {
+            return System.nanoTime() - loadedAtNanos > nanos;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.skoy.bootcamp_microservices.service;
 
+import com.skoy.bootcamp_microservices.dto.BatchResult;
+import com.skoy.bootcamp_microservices.dto.SectionedReport;
 import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.utils.ExportCursor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,9 +16,14 @@ import java.util.Map;
 public interface IReportService {
 
     Flux<TransactionDTO> findByCustomerId(String customerId);
+    Flux<TransactionDTO> exportByCustomerId(String customerId, ExportCursor after, List<String> fields, int batchSize);
     Mono<Map<String, BigDecimal>> getDailyAverageBalances(String customerId);
+    Flux<BatchResult<Map<String, BigDecimal>>> getDailyAverageBalancesBatch(Flux<String> customerIds);
+    Mono<Map<String, BigDecimal>> getClosingBalances(String customerId, LocalDate day);
     Mono<Map<String, BigDecimal>> getCommissionsByProduct(LocalDate startDate, LocalDate endDate);
-    Mono<Map<String, Object>> getCustomerSummary(String customerId);
-    Mono<Map<String, Object>> getGeneralReportByProduct(String customerId, LocalDate startDate, LocalDate endDate);
+    Mono<SectionedReport> getCustomerSummary(String customerId, boolean partial);
+    Flux<BatchResult<Map<String, Object>>> getCustomerSummaries(Flux<String> customerIds, boolean partial);
+    Mono<SectionedReport> getGeneralReportByProduct(String customerId, LocalDate startDate, LocalDate endDate, boolean partial);
     Mono<Map<String, List<TransactionDTO>>> getLast10Transactions(String customerId);
+    Mono<Map<String, List<TransactionDTO>>> getLastTransactions(String customerId, int n, Transaction.CardTypeEnum cardType);
 }
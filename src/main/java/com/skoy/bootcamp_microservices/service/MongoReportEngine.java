@@ -0,0 +1,95 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reportes calculados en Mongo con $match/$group sobre la coleccion de transacciones:
+ * solo viajan los totales por producto, no las transacciones.
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoReportEngine {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public Mono<Map<String, BigDecimal>> sumCommissionsByProduct(DateRange range) {
+        Criteria match = createdIn(range).and("commissionAmount").gt(BigDecimal.ZERO);
+        return sumByProduct(match, "commissionAmount");
+    }
+
+    public Mono<Map<String, BigDecimal>> sumAmountsByProduct(String customerId, DateRange range) {
+        Criteria match = Criteria.where("customerId").is(customerId)
+                .andOperator(createdIn(range));
+        return sumByProduct(match, "amount");
+    }
+
+    /**
+     * Misma consulta sobre daily_rollups: O(dias) filas por cliente en lugar de O(transacciones).
+     */
+    public Mono<Map<String, BigDecimal>> sumRollupCommissionsByProduct(DateRange range) {
+        return sumByProduct(DailyRollup.class, dayIn(range), "commissionTotal");
+    }
+
+    public Mono<Map<String, BigDecimal>> sumRollupAmountsByProduct(String customerId, DateRange range) {
+        Criteria match = Criteria.where("customerId").is(customerId)
+                .andOperator(dayIn(range));
+        return sumByProduct(DailyRollup.class, match, "amountTotal");
+    }
+
+    /**
+     * Saldo de cierre de cada producto del cliente al final de day: suma de amountTotal de sus
+     * rollups hasta ese dia (O(dias) filas, por el indice customerId_productTypeId_day).
+     */
+    public Mono<Map<String, BigDecimal>> sumRollupClosingBalancesByProduct(String customerId, LocalDate day) {
+        Criteria match = Criteria.where("customerId").is(customerId).and("day").lte(day);
+        return sumByProduct(DailyRollup.class, match, "amountTotal");
+    }
+
+    private Mono<Map<String, BigDecimal>> sumByProduct(Criteria match, String field) {
+        return sumByProduct(Transaction.class, match, field);
+    }
+
+    private Mono<Map<String, BigDecimal>> sumByProduct(Class<?> collection, Criteria match, String field) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(match),
+                Aggregation.group("productTypeId").sum(field).as("total"));
+        return mongoTemplate.aggregate(aggregation, collection, ProductTotal.class)
+                .filter(total -> total.getId() != null && total.getTotal() != null)
+                .collectMap(ProductTotal::getId, total -> total.getTotal().setScale(KeyedSum.MONEY_SCALE, RoundingMode.HALF_UP),
+                        HashMap::new);
+    }
+
+    private static Criteria createdIn(DateRange range) {
+        return Criteria.where("createdAt")
+                .gte(range.getStartDate().atStartOfDay())
+                .lt(range.getEndDate().plusDays(1).atStartOfDay());
+    }
+
+    private static Criteria dayIn(DateRange range) {
+        return Criteria.where("day").gte(range.getStartDate()).lte(range.getEndDate());
+    }
+
+    @Data
+    static class ProductTotal {
+        @Id
+        private String id;
+        private BigDecimal total;
+    }
+}
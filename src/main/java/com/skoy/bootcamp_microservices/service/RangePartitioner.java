@@ -0,0 +1,109 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.Progress;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Divide un rango de fechas amplio en ventanas de reports.partition.window-days dias, las consulta con
+ * a lo sumo reports.partition.parallelism en paralelo y combina los parciales. Una ventana fallida se
+ * reintenta sola; las ventanas de meses cerrados (terminan antes del primer dia del mes en curso) se
+ * guardan en la cache "windows", de la que salen con la invalidacion por cliente o, las de
+ * {@link #ALL_CUSTOMERS}, con cualquier cambio que alcance un mes cerrado.
+ * Cada ventana terminada cuenta como una unidad de {@link Progress}.
+ */
+@Component
+public class RangePartitioner {
+
+    public static final String CLOSED_WINDOWS = "windows";
+    /** Prefijo de clave de los resultados que agregan transacciones de todos los clientes. */
+    public static final String ALL_CUSTOMERS = "*";
+
+    private final DownstreamCache cache;
+    private final Counter retriedWindows;
+
+    @Value("${reports.partition.window-days:7}")
+    private int windowDays;
+
+    @Value("${reports.partition.min-days:15}")
+    private int minDays;
+
+    @Value("${reports.partition.parallelism:8}")
+    private int parallelism;
+
+    @Value("${reports.partition.window-retries:2}")
+    private int windowRetries;
+
+    @Value("${reports.partition.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    public RangePartitioner(DownstreamCache cache, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.retriedWindows = Counter.builder("report.partition.windows.retried").register(meterRegistry);
+    }
+
+    /**
+     * @param cacheKey prefijo de clave de la cache de ventanas; debe empezar por el customerId si
+     *                 el resultado es de un cliente, o por {@link #ALL_CUSTOMERS} si mezcla clientes,
+     *                 para que la invalidacion lo alcance
+     * @param merge    combina parciales; las ventanas se combinan en orden cronologico
+     */
+    public <T> Mono<T> fetch(String cacheKey, DateRange range, Function<DateRange, Mono<T>> window, BinaryOperator<T> merge) {
+        if (range.days() < minDays) {
+            return Mono.deferContextual(context -> {
+                Progress.expect(context, 1);
+                return window.apply(range).doOnSuccess(result -> Progress.advance(context));
+            });
+        }
+        LocalDate firstOpenDay = LocalDate.now().withDayOfMonth(1);
+        List<DateRange> parts = range.split(windowDays);
+        return Mono.deferContextual(context -> {
+            Progress.expect(context, parts.size());
+            return Flux.fromIterable(parts)
+                    .flatMapSequential(part -> fetchWindow(cacheKey, part, firstOpenDay, window)
+                            .doOnSuccess(result -> Progress.advance(context)), parallelism)
+                    .reduce(merge);
+        });
+    }
+
+    private <T> Mono<T> fetchWindow(String cacheKey, DateRange part, LocalDate firstOpenDay, Function<DateRange, Mono<T>> window) {
+        Mono<T> attempt = Mono.defer(() -> window.apply(part))
+                .retryWhen(Retry.backoff(windowRetries, retryBackoff)
+                        // Con el circuito abierto o el bulkhead lleno reintentar solo suma carga.
+                        .filter(ex -> !(ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException))
+                        .doBeforeRetry(signal -> retriedWindows.increment())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        if (!part.getEndDate().isBefore(firstOpenDay)) {
+            return attempt;
+        }
+        return cache.get(CLOSED_WINDOWS, DownstreamCache.key(cacheKey, part.getStartDate(), part.getEndDate()), () -> attempt);
+    }
+
+    /**
+     * Las ventanas de un cliente las retira DownstreamCache; las de todos los clientes solo cambian
+     * si el cambio cae en un mes cerrado (una correccion o un evento que llega tarde).
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!event.isAllCustomers() && !event.getCustomerIds().isEmpty()
+                && event.mayAffectBefore(LocalDate.now().withDayOfMonth(1))) {
+            cache.invalidateCustomer(ALL_CUSTOMERS);
+        }
+    }
+}
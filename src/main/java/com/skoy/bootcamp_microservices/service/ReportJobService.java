@@ -0,0 +1,424 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.enums.ReportJobStatusEnum;
+import com.skoy.bootcamp_microservices.enums.ReportJobTypeEnum;
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
+import com.skoy.bootcamp_microservices.model.ReportJob;
+import com.skoy.bootcamp_microservices.utils.Deadline;
+import com.skoy.bootcamp_microservices.utils.Progress;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Cola de reportes pesados. Los jobs se guardan en Mongo (report_jobs) y se ejecutan con a lo sumo
+ * reports.jobs.workers en paralelo, repartidos por turno entre tenants para que uno solo no acapare
+ * los workers. Un envio identico a un job en cola o en curso devuelve ese mismo job.
+ * <p>
+ * Las colas viven en memoria: cada instancia renueva el lease (reports.jobs.lease) de sus jobs en cola
+ * o en curso, y cualquier instancia reclama y vuelve a encolar los jobs cuyo lease vencio porque su
+ * instancia se detuvo, hasta reports.jobs.max-attempts ejecuciones. Los resultados de mas de
+ * reports.jobs.inline-result-max-bytes se guardan en GridFS en lugar de en el documento del job.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReactiveGridFsOperations gridFs;
+    private final IReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int workers;
+    private final int maxQueuedPerTenant;
+    private final Duration jobDeadline;
+    private final Duration resultTtl;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final int inlineResultMaxBytes;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Scheduler scheduler;
+    private Disposable maintenance;
+
+    // Colas por tenant y orden de turno; protegidas por el monitor de this.
+    private final Map<String, Deque<ReportJob>> queues = new HashMap<>();
+    private final Deque<String> turns = new ArrayDeque<>();
+    private int running;
+    private int queued;
+
+    public ReportJobService(ReactiveMongoTemplate mongoTemplate,
+                            ReactiveGridFsOperations gridFs,
+                            IReportService reportService,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${reports.jobs.workers:4}") int workers,
+                            @Value("${reports.jobs.max-queued-per-tenant:100}") int maxQueuedPerTenant,
+                            @Value("${reports.jobs.deadline:10m}") Duration jobDeadline,
+                            @Value("${reports.jobs.result-ttl:24h}") Duration resultTtl,
+                            @Value("${reports.jobs.lease:30s}") Duration lease,
+                            @Value("${reports.jobs.max-attempts:3}") int maxAttempts,
+                            @Value("${reports.jobs.inline-result-max-bytes:1048576}") int inlineResultMaxBytes) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFs = gridFs;
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.workers = workers;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.jobDeadline = jobDeadline;
+        this.resultTtl = resultTtl;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.inlineResultMaxBytes = inlineResultMaxBytes;
+        this.scheduler = Schedulers.newBoundedElastic(workers, Integer.MAX_VALUE, "report-jobs");
+        meterRegistry.gauge("report.jobs.queued", this, service -> service.queuedCount());
+        meterRegistry.gauge("report.jobs.running", this, service -> service.runningCount());
+    }
+
+    public Mono<ReportJob> submit(String tenantId, ReportJobTypeEnum type, Map<String, String> params) {
+        String hash = requestHash(tenantId, type, params);
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob job = new ReportJob();
+        job.setTenantId(tenantId);
+        job.setType(type);
+        job.setParams(new TreeMap<>(params));
+        job.setRequestHash(hash);
+        job.setActiveHash(hash);
+        job.setStatus(ReportJobStatusEnum.QUEUED);
+        job.setOwnerId(instanceId);
+        job.setLeaseUntil(now.plus(lease));
+        job.setCreatedAt(now);
+        job.setExpiresAt(now.plus(jobDeadline).plus(resultTtl));
+
+        return mongoTemplate.insert(job)
+                .flatMap(saved -> {
+                    if (!enqueue(saved)) {
+                        return mongoTemplate.remove(saved)
+                                .then(Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                                        "Too many queued report jobs for tenant " + tenantId)));
+                    }
+                    drain();
+                    return Mono.just(saved);
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> mongoTemplate
+                        .findOne(Query.query(Criteria.where("activeHash").is(hash)), ReportJob.class)
+                        // El job activo termino entre el insert y la lectura.
+                        .switchIfEmpty(Mono.defer(() -> submit(tenantId, type, params))));
+    }
+
+    public Mono<ReportJob> findById(String jobId) {
+        return mongoTemplate.findById(jobId, ReportJob.class);
+    }
+
+    /**
+     * Igual que findById, pero un job de otro tenant se trata como inexistente.
+     */
+    public Mono<ReportJob> findById(String tenantId, String jobId) {
+        return findById(jobId).filter(job -> tenantId.equals(job.getTenantId()));
+    }
+
+    /**
+     * Resultado de un job terminado, del propio documento o de GridFS.
+     */
+    public Mono<JsonNode> readResult(ReportJob job) {
+        if (job.getResultFileId() != null) {
+            return gridFs.findOne(Query.query(Criteria.where("_id").is(new ObjectId(job.getResultFileId()))))
+                    .flatMap(gridFs::getResource)
+                    .flatMap(resource -> DataBufferUtils.join(resource.getDownloadStream()))
+                    .map(buffer -> {
+                        try (InputStream json = buffer.asInputStream(true)) {
+                            return objectMapper.readTree(json);
+                        } catch (IOException ex) {
+                            throw new IllegalStateException("Stored report job result is not valid JSON", ex);
+                        }
+                    });
+        }
+        if (job.getResult() == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> objectMapper.readTree(job.getResult()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMaintenance() {
+        maintenance = Flux.interval(Duration.ZERO, lease.dividedBy(3))
+                .onBackpressureDrop()
+                .concatMap(tick -> renewLeases()
+                        .then(recoverOrphans())
+                        .then(deleteExpiredResults())
+                        .onErrorResume(ex -> {
+                            logger.warn("Report job maintenance failed: {}", ex.toString());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Extiende el lease de los jobs que esta instancia tiene en cola o en curso.
+     */
+    Mono<Void> renewLeases() {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("ownerId").is(instanceId)
+                                .and("status").in(ReportJobStatusEnum.QUEUED, ReportJobStatusEnum.RUNNING)),
+                        new Update().set("leaseUntil", LocalDateTime.now().plus(lease)),
+                        ReportJob.class)
+                .then();
+    }
+
+    /**
+     * Reclama uno a uno los jobs activos con el lease vencido (o sin lease) y los vuelve a encolar;
+     * los que ya agotaron reports.jobs.max-attempts ejecuciones se marcan como fallidos.
+     */
+    Mono<Long> recoverOrphans() {
+        Mono<ReportJob> claim = Mono.defer(() -> mongoTemplate.findAndModify(
+                Query.query(new Criteria().andOperator(
+                        Criteria.where("status").in(ReportJobStatusEnum.QUEUED, ReportJobStatusEnum.RUNNING),
+                        new Criteria().orOperator(Criteria.where("leaseUntil").lt(LocalDateTime.now()),
+                                Criteria.where("leaseUntil").exists(false)))),
+                new Update().set("ownerId", instanceId)
+                        .set("leaseUntil", LocalDateTime.now().plus(lease))
+                        .set("status", ReportJobStatusEnum.QUEUED),
+                FindAndModifyOptions.options().returnNew(true),
+                ReportJob.class));
+        return claim.expand(job -> claim)
+                .concatMap(job -> {
+                    if (job.getAttempts() >= maxAttempts) {
+                        logger.warn("Report job {} abandoned after {} attempts", job.getId(), job.getAttempts());
+                        return finish(job, ReportJobStatusEnum.FAILED, null, "Abandoned after " + job.getAttempts() + " attempts");
+                    }
+                    logger.info("Recovered report job {} ({}) from a stopped instance", job.getId(), job.getType());
+                    requeue(job);
+                    return Mono.just(job.getStatus());
+                })
+                .count()
+                .doOnNext(recovered -> drain());
+    }
+
+    private Mono<Void> deleteExpiredResults() {
+        return gridFs.delete(Query.query(Criteria.where("metadata.expiresAt").lt(LocalDateTime.now())));
+    }
+
+    private synchronized boolean enqueue(ReportJob job) {
+        Deque<ReportJob> queue = queues.get(job.getTenantId());
+        if (queue != null && queue.size() >= maxQueuedPerTenant) {
+            return false;
+        }
+        requeue(job);
+        return true;
+    }
+
+    /**
+     * Encola sin aplicar el limite por tenant: el job ya habia sido aceptado.
+     */
+    private synchronized void requeue(ReportJob job) {
+        Deque<ReportJob> queue = queues.get(job.getTenantId());
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(job.getTenantId(), queue);
+            turns.addLast(job.getTenantId());
+        }
+        queue.addLast(job);
+        queued++;
+    }
+
+    private void drain() {
+        List<ReportJob> next = new ArrayList<>();
+        synchronized (this) {
+            while (running < workers && !turns.isEmpty()) {
+                String tenantId = turns.pollFirst();
+                Deque<ReportJob> queue = queues.get(tenantId);
+                next.add(queue.pollFirst());
+                queued--;
+                running++;
+                if (queue.isEmpty()) {
+                    queues.remove(tenantId);
+                } else {
+                    turns.addLast(tenantId);
+                }
+            }
+        }
+        next.forEach(this::run);
+    }
+
+    private void run(ReportJob job) {
+        long start = System.nanoTime();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                        new Update().set("status", ReportJobStatusEnum.RUNNING)
+                                .set("startedAt", LocalDateTime.now())
+                                .set("progress", 0)
+                                .inc("attempts", 1),
+                        ReportJob.class)
+                .then(execute(job))
+                .flatMap(output -> finish(job, ReportJobStatusEnum.DONE, output, null))
+                .onErrorResume(ex -> {
+                    logger.warn("Report job {} ({}) failed: {}", job.getId(), job.getType(), ex.toString());
+                    return finish(job, ReportJobStatusEnum.FAILED, null, ex.getMessage());
+                })
+                .doOnNext(status -> Timer.builder("report.jobs.duration")
+                        .tag("type", job.getType().name())
+                        .tag("status", status.name())
+                        .register(meterRegistry)
+                        .record(Duration.ofNanos(System.nanoTime() - start)))
+                .subscribeOn(scheduler)
+                .doFinally(signal -> {
+                    synchronized (this) {
+                        running--;
+                    }
+                    drain();
+                })
+                .subscribe();
+    }
+
+    private Mono<JobOutput> execute(ReportJob job) {
+        Map<String, String> params = job.getParams();
+        Mono<JobOutput> output = switch (job.getType()) {
+            case COMMISSIONS_BY_PRODUCT -> reportService
+                    .getCommissionsByProduct(LocalDate.parse(params.get("startDate")), LocalDate.parse(params.get("endDate")))
+                    .map(data -> new JobOutput(data, null));
+            case GENERAL_REPORT_BY_PRODUCT -> reportService
+                    .getGeneralReportByProduct(params.get("customerId"), LocalDate.parse(params.get("dateFrom")),
+                            LocalDate.parse(params.get("dateTo")), Boolean.parseBoolean(params.get("partial")))
+                    .map(report -> new JobOutput(report.getData(), report.getSections()));
+        };
+        // Los jobs no estan limitados por reports.deadline sino por reports.jobs.deadline.
+        return output.timeout(jobDeadline)
+                .contextWrite(Deadline.within(jobDeadline))
+                .contextWrite(Progress.reporting(percent -> reportProgress(job, percent)));
+    }
+
+    /**
+     * Solo sube: una escritura que llega tarde no puede bajar el avance ya guardado.
+     */
+    private void reportProgress(ReportJob job, int percent) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())
+                                .and("status").is(ReportJobStatusEnum.RUNNING)
+                                .and("progress").lt(percent)),
+                        new Update().set("progress", percent),
+                        ReportJob.class)
+                .subscribe(result -> { }, ex -> logger.debug("Could not report progress of job {}: {}", job.getId(), ex.toString()));
+    }
+
+    private Mono<ReportJobStatusEnum> finish(ReportJob job, ReportJobStatusEnum status, JobOutput output, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(resultTtl);
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", now)
+                .set("expiresAt", expiresAt)
+                .unset("activeHash")
+                .unset("ownerId")
+                .unset("leaseUntil");
+        if (error != null) {
+            update.set("error", error);
+        }
+        Mono<Update> complete = Mono.just(update);
+        if (output != null) {
+            update.set("progress", 100).set("sections", output.sections());
+            byte[] json = toJson(output.data());
+            complete = json.length <= inlineResultMaxBytes
+                    ? Mono.just(update.set("result", new String(json, StandardCharsets.UTF_8)))
+                    : storeResult(job, json, expiresAt).map(fileId -> update.set("resultFileId", fileId.toHexString()));
+        }
+        return complete
+                .flatMap(changes -> mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())), changes, ReportJob.class))
+                .thenReturn(status);
+    }
+
+    /**
+     * El documento del job tiene el limite de 16 MB de Mongo; GridFS guarda el resultado en chunks.
+     * El indice TTL de report_jobs no alcanza a GridFS: deleteExpiredResults usa metadata.expiresAt.
+     */
+    private Mono<ObjectId> storeResult(ReportJob job, byte[] json, LocalDateTime expiresAt) {
+        Document metadata = new Document("jobId", job.getId()).append("expiresAt", expiresAt);
+        Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json));
+        return gridFs.store(content, "report-job-" + job.getId() + ".json", MediaType.APPLICATION_JSON_VALUE, metadata);
+    }
+
+    private byte[] toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize report job result", ex);
+        }
+    }
+
+    /**
+     * El tenant forma parte del hash: dos tenants con los mismos parametros no comparten job.
+     */
+    private static String requestHash(String tenantId, ReportJobTypeEnum type, Map<String, String> params) {
+        StringBuilder canonical = new StringBuilder(tenantId).append('|').append(type.name());
+        new TreeMap<>(params).forEach((key, value) -> canonical.append('&').append(key).append('=').append(value));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private synchronized int queuedCount() {
+        return queued;
+    }
+
+    private synchronized int runningCount() {
+        return running;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.dispose();
+        }
+        scheduler.dispose();
+    }
+
+    private record JobOutput(Object data, Map<String, SectionStatusEnum> sections) {
+    }
+}
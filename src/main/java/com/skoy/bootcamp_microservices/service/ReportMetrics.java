@@ -0,0 +1,46 @@
+package com.skoy.bootcamp_microservices.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Contadores de elementos por pipeline de ReportService (report.pipeline.elements):
+ * stage=streamed para lo leido del servicio remoto y stage=filtered para lo descartado.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportMetrics {
+
+    public static final String PIPELINE_ELEMENTS = "report.pipeline.elements";
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> Function<Flux<T>, Flux<T>> streamed(String pipeline) {
+        Counter counter = counter(pipeline, "streamed");
+        return flux -> flux.doOnNext(item -> counter.increment());
+    }
+
+    public <T> Predicate<T> filter(String pipeline, Predicate<T> predicate) {
+        Counter counter = counter(pipeline, "filtered");
+        return item -> {
+            if (predicate.test(item)) {
+                return true;
+            }
+            counter.increment();
+            return false;
+        };
+    }
+
+    private Counter counter(String pipeline, String stage) {
+        return Counter.builder(PIPELINE_ELEMENTS)
+                .tag("pipeline", pipeline)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
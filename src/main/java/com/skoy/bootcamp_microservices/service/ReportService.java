@@ -1,29 +1,48 @@
 package com.skoy.bootcamp_microservices.service;
 
+import com.skoy.bootcamp_microservices.config.DownstreamClients;
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import com.skoy.bootcamp_microservices.dto.BatchResult;
+import com.skoy.bootcamp_microservices.dto.CreditDTO;
+import com.skoy.bootcamp_microservices.dto.CustomerDTO;
+import com.skoy.bootcamp_microservices.dto.SectionedReport;
 import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ReportEngineEnum;
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
 import com.skoy.bootcamp_microservices.mapper.TransactionMapper;
 import com.skoy.bootcamp_microservices.model.Transaction;
 import com.skoy.bootcamp_microservices.repository.IReportRepository;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.ExportCursor;
+import com.skoy.bootcamp_microservices.utils.Deadline;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import com.skoy.bootcamp_microservices.utils.Constants;
+import com.skoy.bootcamp_microservices.utils.TopK;
 import com.skoy.bootcamp_microservices.utils.UDate;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,23 +50,26 @@ import java.util.stream.Collectors;
 public class ReportService implements IReportService {
 
     private final IReportRepository repository;
-    private final WebClient.Builder webClientBuilder;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DownstreamClients clients;
+    private final DownstreamCache cache;
+    private final ReportMetrics metrics;
+    private final ResilientCalls resilience;
+    private final MongoReportEngine mongoReportEngine;
+    private final TransactionQueryClient transactionQueryClient;
+    private final RangePartitioner rangePartitioner;
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+    private static final Comparator<TransactionDTO> NEWEST_FIRST =
+            Comparator.comparing(TransactionDTO::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
 
-    @Value("${services.customer}")
-    private String customerServiceUrl;
+    @Value("${reports.engine:HTTP}")
+    private ReportEngineEnum reportEngine;
 
-    @Value("${services.bankaccount}")
-    private String accountServiceUrl;
+    @Value("${reports.deadline:5s}")
+    private Duration reportDeadline;
 
-    @Value("${services.credit}")
-    private String creditServiceUrl;
-
-    @Value("${services.transaction}")
-    private String transactionServiceUrl;
-
-    @Value("${services.card}")
-    private String cardServiceUrl;
+    @Value("${reports.batch.concurrency:32}")
+    private int batchConcurrency;
 
 
     @Override
@@ -56,141 +78,266 @@ public class ReportService implements IReportService {
                 .map(TransactionMapper::toDto);
     }
 
+    /**
+     * Exporta las transacciones del cliente en orden (createdAt, id) leyendo paginas de batchSize
+     * por keyset: cada pagina continua despues del ultimo elemento de la anterior, sin skip, y la
+     * siguiente solo se consulta cuando se vacio la actual (prefetch 1: una pagina en memoria).
+     */
+    @Override
+    public Flux<TransactionDTO> exportByCustomerId(String customerId, ExportCursor after, List<String> fields, int batchSize) {
+        return fetchExportPage(customerId, after, fields, batchSize)
+                .expand(page -> page.size() == batchSize
+                        ? fetchExportPage(customerId, cursorOf(page.get(page.size() - 1)), fields, batchSize)
+                        : Mono.empty())
+                .concatMapIterable(page -> page, 1)
+                .map(TransactionMapper::toDto);
+    }
+
+    private Mono<List<Transaction>> fetchExportPage(String customerId, ExportCursor after, List<String> fields, int batchSize) {
+        Criteria criteria = Criteria.where("customerId").is(customerId);
+        if (after != null && after.createdAt() == null) {
+            // Mongo ordena los createdAt nulos antes que cualquier fecha
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").is(null).and("id").gt(after.id()),
+                    Criteria.where("createdAt").ne(null));
+        } else if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").gt(after.createdAt()),
+                    Criteria.where("createdAt").is(after.createdAt()).and("id").gt(after.id()));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")))
+                .limit(batchSize)
+                .cursorBatchSize(batchSize);
+        if (fields != null && !fields.isEmpty()) {
+            query.fields().include(fields.toArray(String[]::new)).include("createdAt");
+        }
+        return Mono.defer(() -> mongoTemplate.find(query, Transaction.class).collectList());
+    }
+
+    private static ExportCursor cursorOf(Transaction transaction) {
+        return new ExportCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
 
     @Override
     public Mono<Map<String, BigDecimal>> getDailyAverageBalances(String customerId) {
         LocalDate startDate = LocalDate.now().withDayOfMonth(1);
         LocalDate endDate = LocalDate.now().plus(1, ChronoUnit.MONTHS).withDayOfMonth(1).minusDays(1);
+        DateRange month = DateRange.of(startDate, endDate);
+        BigDecimal daysInMonth = BigDecimal.valueOf(month.days());
 
-        return webClientBuilder.build()
-                .get()
-                .uri(transactionServiceUrl + "/transactions/customer/" + customerId)
-                .retrieve()
-                .bodyToFlux(TransactionDTO.class)
-                .filter(transaction -> !transaction.getCreatedAt().toLocalDate().isBefore(startDate) &&
-                        !transaction.getCreatedAt().toLocalDate().isAfter(endDate))
-                .groupBy(TransactionDTO::getProductTypeId)
-                .flatMap(groupedFlux -> groupedFlux.collectList()
-                        .map(transactions -> {
-                            BigDecimal totalBalance = transactions.stream()
-                                    .map(TransactionDTO::getAmount)
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                            long daysInMonth = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-                            BigDecimal averageBalance = totalBalance.divide(BigDecimal.valueOf(daysInMonth), BigDecimal.ROUND_HALF_UP);
-                            return Map.entry(groupedFlux.key(), averageBalance);
-                        }))
-                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        Mono<Map<String, BigDecimal>> totals = switch (reportEngine) {
+            case MONGO -> mongoReportEngine.sumAmountsByProduct(customerId, month);
+            case ROLLUP -> mongoReportEngine.sumRollupAmountsByProduct(customerId, month);
+            default -> sumTransactionAmounts(customerId, month);
+        };
+
+        return totals.map(balances -> {
+            balances.replaceAll((productTypeId, totalBalance) ->
+                    totalBalance.divide(daysInMonth, RoundingMode.HALF_UP));
+            return balances;
+        });
+    }
+
+    private Mono<Map<String, BigDecimal>> sumTransactionAmounts(String customerId, DateRange month) {
+        Flux<TransactionDTO> transactions = resilience.stream(DownstreamClients.TRANSACTION, () -> clients.transaction()
+                        .get()
+                        .uri("/transactions/customer/{customerId}", customerId)
+                        .retrieve()
+                        .bodyToFlux(TransactionDTO.class))
+                .transform(metrics.streamed("daily-average-balances"))
+                .filter(metrics.filter("daily-average-balances", transaction -> month.contains(transaction.getCreatedAt())));
+
+        return KeyedSum.sumByKey(transactions, TransactionDTO::getProductTypeId, TransactionDTO::getAmount);
+    }
+
+    @Override
+    public Flux<BatchResult<Map<String, BigDecimal>>> getDailyAverageBalancesBatch(Flux<String> customerIds) {
+        return batch(customerIds, customerId -> getDailyAverageBalances(customerId)
+                .map(data -> new BatchResult<>(customerId, "Success", Constants.STATUS_OK, data, null)));
+    }
+
+    /**
+     * Saldo de cierre por producto al final de day, leido de los rollups diarios (O(dias) filas). Los
+     * rollups se mantienen con la ingesta sea cual sea reports.engine, asi que no depende del motor.
+     */
+    @Override
+    public Mono<Map<String, BigDecimal>> getClosingBalances(String customerId, LocalDate day) {
+        return mongoReportEngine.sumRollupClosingBalancesByProduct(customerId, day);
     }
 
     @Override
     public Mono<Map<String, BigDecimal>> getCommissionsByProduct(LocalDate startDate, LocalDate endDate) {
-        return webClientBuilder.build()
-                .get()
-                .uri(transactionServiceUrl + "/transactions")
-                .retrieve()
-                .bodyToFlux(TransactionDTO.class)
-                .filter(transaction -> !transaction.getCreatedAt().toLocalDate().isBefore(startDate) &&
-                        !transaction.getCreatedAt().toLocalDate().isAfter(endDate))
-                .filter(transaction -> transaction.getCommissionAmount() != null && transaction.getCommissionAmount().compareTo(BigDecimal.ZERO) > 0)
-                .groupBy(TransactionDTO::getProductTypeId)
-                .flatMap(groupedFlux -> groupedFlux.collectList()
-                        .map(transactions -> {
-                            BigDecimal totalCommission = transactions.stream()
-                                    .map(TransactionDTO::getCommissionAmount)
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                            return Map.entry(groupedFlux.key(), totalCommission);
-                        }))
-                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        DateRange range = DateRange.of(startDate, endDate);
+        if (reportEngine == ReportEngineEnum.MONGO) {
+            return mongoReportEngine.sumCommissionsByProduct(range);
+        }
+        if (reportEngine == ReportEngineEnum.ROLLUP) {
+            return mongoReportEngine.sumRollupCommissionsByProduct(range);
+        }
+
+        return rangePartitioner.fetch(DownstreamCache.key(RangePartitioner.ALL_CUSTOMERS, "commissions-by-product"), range, this::sumCommissions, KeyedSum::merge)
+                .defaultIfEmpty(Map.of());
+    }
+
+    private Mono<Map<String, BigDecimal>> sumCommissions(DateRange window) {
+        Flux<TransactionDTO> transactions = transactionQueryClient.findByDateRange(window.getStartDate(), window.getEndDate(), true)
+                .transform(metrics.streamed("commissions-by-product"))
+                .filter(metrics.filter("commissions-by-product", transaction -> window.contains(transaction.getCreatedAt())
+                        && transaction.getCommissionAmount() != null && transaction.getCommissionAmount().compareTo(BigDecimal.ZERO) > 0));
+
+        return KeyedSum.sumByKey(transactions, TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount);
     }
 
     @Override
-    public Mono<Map<String, Object>> getCustomerSummary(String customerId) {
-        Mono<Map<String, Object>> customerInfo = webClientBuilder.build()
+    public Mono<SectionedReport> getCustomerSummary(String customerId, boolean partial) {
+        Mono<CustomerDTO> customerInfo = cache.get(DownstreamClients.CUSTOMER, customerId, () -> resilience.get(DownstreamClients.CUSTOMER, () -> clients.customer()
                 .get()
-                .uri(customerServiceUrl + "/customers/" + customerId)
+                .uri("/customers/{customerId}", customerId)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {});
+                .bodyToMono(CustomerDTO.class)));
 
-        Mono<List<Map<String, Object>>> bankAccounts = webClientBuilder.build()
+        Mono<List<BankAccountDTO>> bankAccounts = cache.get(DownstreamClients.BANK_ACCOUNT, customerId, () -> resilience.get(DownstreamClients.BANK_ACCOUNT, () -> clients.bankAccount()
                 .get()
-                .uri(accountServiceUrl + "/bank_accounts/customer/" + customerId)
+                .uri("/bank_accounts/customer/{customerId}", customerId)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+                .bodyToFlux(BankAccountDTO.class)
+                .collectList()));
 
-        Mono<List<Map<String, Object>>> credits = webClientBuilder.build()
+        Mono<List<CreditDTO>> credits = cache.get(DownstreamClients.CREDIT, customerId, () -> resilience.get(DownstreamClients.CREDIT, () -> clients.credit()
                 .get()
-                .uri(creditServiceUrl + "/credits/customer/" + customerId)
+                .uri("/credits/customer/{customerId}", customerId)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+                .bodyToFlux(CreditDTO.class)
+                .collectList()));
 
-        return Mono.zip(customerInfo, bankAccounts, credits)
-                .map(tuple -> {
-                    Map<String, Object> summary = new HashMap<>();
-                    summary.put("customerInfo", tuple.getT1());
-                    summary.put("bankAccounts", tuple.getT2());
-                    summary.put("credits", tuple.getT3());
-                    return summary;
-                });
+        Map<String, Mono<?>> sections = new LinkedHashMap<>();
+        sections.put("customerInfo", customerInfo);
+        sections.put("bankAccounts", bankAccounts);
+        sections.put("credits", credits);
+        return assemble(sections, partial);
     }
 
     @Override
-    public Mono<Map<String, Object>> getGeneralReportByProduct(String customerId, LocalDate dateFrom, LocalDate dateTo) {
-        String dateFromStr = UDate.convertToString(dateFrom);
-        String dateToStr = UDate.convertToString(dateTo);
+    public Flux<BatchResult<Map<String, Object>>> getCustomerSummaries(Flux<String> customerIds, boolean partial) {
+        return batch(customerIds, customerId -> getCustomerSummary(customerId, partial)
+                .map(report -> new BatchResult<>(customerId, report.isComplete() ? "Success" : "Partial",
+                        Constants.STATUS_OK, report.getData(), report.getSections())));
+    }
 
-        String urlBankAccounts = accountServiceUrl + "/bank_accounts/customer/" + customerId+"?dateFrom="+dateFromStr+"&dateTo="+dateToStr;
-        String urlCredits = creditServiceUrl + "/credits/customer/" + customerId+"?dateFrom="+dateFromStr+"&dateTo="+dateToStr;
+    @Override
+    public Mono<SectionedReport> getGeneralReportByProduct(String customerId, LocalDate dateFrom, LocalDate dateTo, boolean partial) {
+        DateRange range = DateRange.of(dateFrom, dateTo);
 
-        Mono<List<Map<String, Object>>> bankAccounts = webClientBuilder.build()
-                .get()
-                .uri(urlBankAccounts)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+        // Saldos, limites y creditos disponibles son estado del producto, no movimiento del rango:
+        // no se pueden sumar por ventanas, asi que se piden una sola vez para el rango completo.
+        Mono<List<BankAccountDTO>> bankAccounts = productsInRange(DownstreamClients.BANK_ACCOUNT,
+                "/bank_accounts/customer/{customerId}?dateFrom={dateFrom}&dateTo={dateTo}", customerId, range, BankAccountDTO.class);
 
-        Mono<List<Map<String, Object>>> credits = webClientBuilder.build()
-                .get()
-                .uri(urlCredits)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+        Mono<List<CreditDTO>> credits = productsInRange(DownstreamClients.CREDIT,
+                "/credits/customer/{customerId}?dateFrom={dateFrom}&dateTo={dateTo}", customerId, range, CreditDTO.class);
 
-        return Mono.zip(bankAccounts, credits)
-                .map(tuple -> {
-                    Map<String, Object> report = new HashMap<>();
-                    report.put("bankAccounts", tuple.getT1());
-                    report.put("credits", tuple.getT2());
-                    return report;
-                });
+        Map<String, Mono<?>> sections = new LinkedHashMap<>();
+        sections.put("bankAccounts", bankAccounts);
+        sections.put("credits", credits);
+        return assemble(sections, partial);
     }
 
-
-
-    /*public Mono<Map<String, List<TransactionDTO>>> getLast10Transactions(String customerId) {
-        return webClientBuilder.build()
+    /**
+     * Los productos se decodifican uno a uno a medida que llega el arreglo JSON, directo al DTO
+     * (los campos que no usa el reporte se descartan sin construir mapas intermedios).
+     */
+    private <T> Mono<List<T>> productsInRange(String service, String uri, String customerId, DateRange range, Class<T> type) {
+        String dateFromStr = UDate.convertToString(range.getStartDate());
+        String dateToStr = UDate.convertToString(range.getEndDate());
+        String rangeKey = DownstreamCache.key(customerId, dateFromStr, dateToStr);
+        return cache.get(service, rangeKey, () -> resilience.get(service, () -> clients.get(service)
                 .get()
-                .uri(transactionServiceUrl + "/transactions/customer/" + customerId)
+                .uri(uri, customerId, dateFromStr, dateToStr)
                 .retrieve()
-                .bodyToFlux(TransactionDTO.class)
-                .filter(transaction -> transaction.getCardType() == Transaction.CardTypeEnum.DEBIT || transaction.getCardType() == Transaction.CardTypeEnum.CREDIT)
-                .sort(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
-                .take(10)
-                .collectList()
-                .map(transactions -> transactions.stream().collect(Collectors.groupingBy(TransactionDTO::getCardType)));
+                .bodyToFlux(type)
+                .collectList()));
     }
-*/
 
+    /**
+     * Fan-out por cliente con a lo sumo reports.batch.concurrency reportes en curso; cada resultado se
+     * emite al completarse y el error de un cliente no interrumpe el lote.
+     */
+    private <T> Flux<BatchResult<T>> batch(Flux<String> customerIds, Function<String, Mono<BatchResult<T>>> report) {
+        return customerIds
+                .filter(customerId -> !customerId.isBlank())
+                .flatMap(customerId -> report.apply(customerId)
+                        .switchIfEmpty(Mono.fromSupplier(() -> new BatchResult<>(customerId, "Not found", Constants.STATUS_E404, null, null)))
+                        .onErrorResume(ex -> {
+                            logger.warn("Batch report for customer {} failed: {}", customerId, ex.toString());
+                            return Mono.just(new BatchResult<>(customerId, ex.getMessage(), Constants.STATUS_E500, null, null));
+                        }), batchConcurrency);
+    }
 
+    /**
+     * Ejecuta las secciones en paralelo dentro del presupuesto reports.deadline. En modo parcial una
+     * seccion fallida queda fuera de data y se informa su estado; si no, el primer error aborta el reporte.
+     */
+    private Mono<SectionedReport> assemble(Map<String, Mono<?>> sections, boolean partial) {
+        return Flux.fromIterable(sections.entrySet())
+                .flatMap(section -> Deadline.apply(section.getValue())
+                        .map(value -> new SectionResult(section.getKey(), value, SectionStatusEnum.OK))
+                        .defaultIfEmpty(new SectionResult(section.getKey(), null, SectionStatusEnum.OK))
+                        .onErrorResume(ex -> {
+                            if (!partial) {
+                                return Mono.error(ex);
+                            }
+                            logger.warn("Report section {} failed: {}", section.getKey(), ex.toString());
+                            return Mono.just(new SectionResult(section.getKey(), null, SectionStatusEnum.of(ex)));
+                        }))
+                .collect(SectionedReport::new, (report, result) -> report.add(result.name(), result.value(), result.status()))
+                .contextWrite(Deadline.withinIfAbsent(reportDeadline));
+    }
+
+    @Override
     public Mono<Map<String, List<TransactionDTO>>> getLast10Transactions(String customerId) {
-        return webClientBuilder.build()
+        return getLastTransactions(customerId, Constants.DEFAULT_LAST_TRANSACTIONS, null);
+    }
+
+    @Override
+    public Mono<Map<String, List<TransactionDTO>>> getLastTransactions(String customerId, int n, Transaction.CardTypeEnum cardType) {
+        List<Transaction.CardTypeEnum> cardTypes = cardType != null
+                ? List.of(cardType)
+                : List.of(Transaction.CardTypeEnum.DEBIT, Transaction.CardTypeEnum.CREDIT);
+        Flux<TransactionDTO> cardTransactions = Flux.fromIterable(cardTypes)
+                .flatMap(type -> findNewestTransactions(customerId, n, type)
+                        .transform(metrics.streamed("last-transactions"))
+                        .filter(metrics.filter("last-transactions", transaction -> transaction.getCardType() == type)));
+
+        return TopK.of(cardTransactions, n, NEWEST_FIRST)
+                .map(transactions -> transactions.stream()
+                        .collect(Collectors.groupingBy(transaction -> transaction.getCardType().name())));
+    }
+
+    /**
+     * Pide al servicio de transacciones las n mas recientes de un tipo de tarjeta. Sin cardType se
+     * hace una consulta por tipo: las n mas recientes de ambos estan entre las n de cada uno. Si el
+     * servicio no soporta sort/limit se recorre el historial y el top-K local hace la seleccion.
+     */
+    private Flux<TransactionDTO> findNewestTransactions(String customerId, int n, Transaction.CardTypeEnum cardType) {
+        return resilience.stream(DownstreamClients.TRANSACTION, () -> clients.transaction()
                 .get()
-                .uri(transactionServiceUrl + "/transactions/customer/" + customerId)
+                .uri(uri -> uri.path("/transactions/customer/{customerId}")
+                        .queryParam("sort", "createdAt,desc")
+                        .queryParam("cardType", cardType.name())
+                        .queryParam("limit", n)
+                        .build(customerId))
                 .retrieve()
                 .bodyToFlux(TransactionDTO.class)
-                .filter(transaction -> transaction.getCardType() == Transaction.CardTypeEnum.DEBIT || transaction.getCardType() == Transaction.CardTypeEnum.CREDIT)
-                .sort(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
-                .take(10)
-                .collectList()
-                .map(transactions -> transactions.stream()
-                        .collect(Collectors.groupingBy(transaction -> transaction.getCardType().name())));
+                .onErrorResume(WebClientResponseException.BadRequest.class, ex -> clients.transaction()
+                        .get()
+                        .uri("/transactions/customer/{customerId}", customerId)
+                        .retrieve()
+                        .bodyToFlux(TransactionDTO.class)));
+    }
+
+    private record SectionResult(String name, Object value, SectionStatusEnum status) {
     }
 
-}
\ No newline at end of file
+}
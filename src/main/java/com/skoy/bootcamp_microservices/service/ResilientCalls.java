@@ -0,0 +1,116 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.WebClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Politicas por servicio remoto: timeout por llamada, bulkhead de concurrencia, circuit breaker
+ * (configurados en resilience4j.* con el nombre del servicio) y, para GETs idempotentes con
+ * clients.services.&lt;servicio&gt;.hedge-delay, una peticion de cobertura si la primera no respondio
+ * tras el p95 reciente de la llamada principal (hedge-delay mientras no hay muestras).
+ */
+@Component
+@RequiredArgsConstructor
+public class ResilientCalls {
+
+    static final String PRIMARY_LATENCY = "report.downstream.primary";
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final WebClientProperties clientProperties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> primaryLatency = new ConcurrentHashMap<>();
+
+    public <T> Mono<T> get(String service, Supplier<Mono<T>> call) {
+        WebClientProperties.Settings settings = settings(service);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(service);
+        Supplier<Mono<T>> attempt = () -> Mono.defer(call)
+                .timeout(settings.getCallTimeout())
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+
+        Mono<T> result = settings.getHedgeDelay() == null ? attempt.get() : hedged(service, settings, attempt);
+        return result.transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(service)));
+    }
+
+    /**
+     * La cobertura solo sale si la primera llamada sigue pendiente tras el retraso; si falla antes,
+     * el error se propaga sin lanzar un duplicado. La primera llamada se mide tambien cuando la
+     * cobertura gana y se cancela: su duracion es una cota inferior, pero sin ella el p95 solo veria
+     * las rapidas y la cobertura saldria cada vez antes.
+     */
+    private <T> Mono<T> hedged(String service, WebClientProperties.Settings settings, Supplier<Mono<T>> attempt) {
+        Timer latency = primaryLatency.computeIfAbsent(service, this::primaryLatencyTimer);
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            long start = System.nanoTime();
+            Mono<T> primary = attempt.get()
+                    .doOnSuccess(value -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnCancel(() -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(ex -> primaryFailed.tryEmitValue(true));
+            Mono<T> hedge = Mono.delay(hedgeDelay(latency, settings))
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> attempt.get());
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class,
+                            ex -> ex.getCause() != null ? Exceptions.unwrapMultiple(ex.getCause()).get(0) : ex);
+        });
+    }
+
+    /**
+     * Flujos largos: sin timeout total ni cobertura, solo bulkhead y circuit breaker; la duracion que
+     * registra el breaker es la del flujo completo, por eso su umbral de llamada lenta se configura aparte.
+     */
+    public <T> Flux<T> stream(String service, Supplier<Flux<T>> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+        return Flux.defer(call)
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(service)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * p95 de la ultima ventana de la llamada principal, acotado a call-timeout; sin muestras, hedge-delay.
+     */
+    private static Duration hedgeDelay(Timer latency, WebClientProperties.Settings settings) {
+        double p95 = latency.takeSnapshot().percentileValues()[0].value(TimeUnit.NANOSECONDS);
+        if (p95 <= 0) {
+            return settings.getHedgeDelay();
+        }
+        Duration delay = Duration.ofNanos((long) p95);
+        return delay.compareTo(settings.getCallTimeout()) < 0 ? delay : settings.getCallTimeout();
+    }
+
+    private Timer primaryLatencyTimer(String service) {
+        return Timer.builder(PRIMARY_LATENCY)
+                .tag("service", service)
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+    }
+
+    private WebClientProperties.Settings settings(String service) {
+        WebClientProperties.Settings settings = clientProperties.getServices().get(service);
+        return settings != null ? settings : new WebClientProperties.Settings();
+    }
+}
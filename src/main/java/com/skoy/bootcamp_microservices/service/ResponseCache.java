@@ -0,0 +1,152 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.skoy.bootcamp_microservices.config.ResponseCacheProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Respuestas de reportes ya serializadas, con su ETag (hash del cuerpo) y fecha de generacion.
+ * Una entrada con customerId se invalida con los cambios de ese cliente; una sin cliente
+ * (agregados globales como comisiones) con cualquier cambio. Sin change stream los cambios en el
+ * servicio de transacciones no llegan aqui: los endpoints de transaction-endpoints vencen a transaction-ttl.
+ * Como en {@link DownstreamCache}, la clave empieza por el cliente y la invalidacion avanza la generacion
+ * de su grupo; cada entrada guarda la generacion con la que se calculo y deja de servirse al leerla
+ * si ya no coincide, sin recorrer la cache en cada evento.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, Entry> cache;
+    private final Duration ttl;
+    private final Duration transactionTtl;
+    private final Set<String> transactionEndpoints;
+    // Generaciones por grupo de clientes (hash del customerId) y de las entradas sin cliente
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong globalGeneration = new AtomicLong();
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry,
+                         @Value("${reports.change-stream.enabled:false}") boolean changeStreamEnabled) {
+        this.ttl = properties.getTtl();
+        this.transactionTtl = changeStreamEnabled ? properties.getTtl() : properties.getTransactionTtl();
+        this.transactionEndpoints = properties.getTransactionEndpoints();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.body().length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "report.responses");
+    }
+
+    /**
+     * requestKey identifica la peticion (ruta, parametros, Accept); customerId es null en los agregados globales.
+     */
+    public Entry get(String customerId, String requestKey) {
+        String key = key(customerId, requestKey);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation() != generation(customerId)) {
+            cache.asMap().remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public long generation(String customerId) {
+        return customerId == null ? globalGeneration.get() : generations.get(stripe(customerId));
+    }
+
+    /**
+     * Guarda la respuesta salvo que su cliente se haya invalidado desde startGeneration.
+     */
+    public Entry put(String requestKey, String endpoint, String customerId, MediaType contentType, byte[] body,
+                     long startGeneration) {
+        Duration entryTtl = transactionEndpoints.contains(endpoint) ? transactionTtl : ttl;
+        Entry entry = new Entry(body, etag(body), System.currentTimeMillis(), contentType, customerId, entryTtl, startGeneration);
+        if (generation(customerId) == startGeneration) {
+            cache.put(key(customerId, requestKey), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Invalidacion manual: ademas de avanzar las generaciones retira ya las entradas del cliente
+     * y las globales por prefijo de clave.
+     */
+    public void invalidateCustomer(String customerId) {
+        generations.incrementAndGet(stripe(customerId));
+        globalGeneration.incrementAndGet();
+        String customerPrefix = DownstreamCache.key(customerId, "");
+        String globalPrefix = DownstreamCache.key(RangePartitioner.ALL_CUSTOMERS, "");
+        cache.asMap().keySet().removeIf(key -> key.startsWith(customerPrefix) || key.startsWith(globalPrefix));
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (event.isAllCustomers()) {
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations.incrementAndGet(stripe);
+            }
+            globalGeneration.incrementAndGet();
+            cache.invalidateAll();
+            return;
+        }
+        globalGeneration.incrementAndGet();
+        event.getCustomerIds().forEach(customerId -> generations.incrementAndGet(stripe(customerId)));
+    }
+
+    private static String key(String customerId, String requestKey) {
+        return DownstreamCache.key(customerId != null ? customerId : RangePartitioner.ALL_CUSTOMERS, requestKey);
+    }
+
+    private static int stripe(String customerId) {
+        return customerId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public record Entry(byte[] body, String etag, long lastModified, MediaType contentType, String customerId, Duration ttl,
+                        long generation) {
+    }
+}
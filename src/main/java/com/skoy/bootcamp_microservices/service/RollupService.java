@@ -0,0 +1,202 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.repository.IDailyRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene la coleccion daily_rollups: actualizacion incremental por transaccion y
+ * reconstruccion idempotente de un rango a partir de la coleccion de transacciones.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final IDailyRollupRepository rollupRepository;
+    private final Timer rebuildTimer;
+    private final Counter rebuildRows;
+    private final AtomicReference<LocalDateTime> lastApplied = new AtomicReference<>();
+
+    public RollupService(ReactiveMongoTemplate mongoTemplate, IDailyRollupRepository rollupRepository, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollupRepository = rollupRepository;
+        this.rebuildTimer = Timer.builder("report.rollup.rebuild").register(meterRegistry);
+        this.rebuildRows = Counter.builder("report.rollup.rebuild.rows").register(meterRegistry);
+        TimeGauge.builder("report.rollup.freshness.lag", this, TimeUnit.SECONDS, RollupService::freshnessLagSeconds)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suma un lote de transacciones a los rollups de sus dias: los montos se agregan primero por
+     * (cliente, producto, dia) y se escriben con un solo bulk write de upserts con $inc. Los $inc son
+     * conmutativos y no leen otros dias (el saldo de cierre se calcula al leer,
+     * MongoReportEngine.sumRollupClosingBalancesByProduct), asi que lotes concurrentes no se pisan.
+     * Cada transaccion debe aplicarse una sola vez; ante duplicados el remedio es {@link #rebuild}.
+     */
+    public Mono<Void> apply(List<Transaction> transactions) {
+        Map<String, DayTotals> totals = new LinkedHashMap<>();
+        LocalDateTime newest = null;
+        for (Transaction transaction : transactions) {
+            if (transaction.getCustomerId() == null || transaction.getProductTypeId() == null || transaction.getCreatedAt() == null) {
+                continue;
+            }
+            LocalDate day = transaction.getCreatedAt().toLocalDate();
+            totals.computeIfAbsent(DailyRollup.idOf(transaction.getCustomerId(), transaction.getProductTypeId(), day),
+                            id -> new DayTotals(transaction.getCustomerId(), transaction.getProductTypeId(), day))
+                    .add(orZero(transaction.getAmount()), orZero(transaction.getCommissionAmount()));
+            if (newest == null || transaction.getCreatedAt().isAfter(newest)) {
+                newest = transaction.getCreatedAt();
+            }
+        }
+        if (totals.isEmpty()) {
+            return Mono.empty();
+        }
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+        totals.forEach((id, day) -> bulk.upsert(Query.query(Criteria.where("_id").is(id)), day.toUpdate(updatedAt)));
+        LocalDateTime applied = newest;
+        return bulk.execute()
+                .doOnSuccess(result -> lastApplied.accumulateAndGet(applied,
+                        (current, latest) -> current == null || latest.isAfter(current) ? latest : current))
+                .then();
+    }
+
+    /**
+     * Recalcula desde las transacciones los rollups de [from, to] y devuelve cuantos escribio.
+     * Es idempotente: los ids son deterministas y los rollups del rango que ya no tienen
+     * transacciones se eliminan. Como ningun rollup guarda saldos acumulados, los dias posteriores
+     * a to no necesitan reescribirse.
+     */
+    public Mono<Long> rebuild(LocalDate from, LocalDate to) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("createdAt").gte(from.atStartOfDay()).lt(to.plusDays(1).atStartOfDay())),
+                        Aggregation.project("customerId", "productTypeId", "amount", "commissionAmount")
+                                .and(DateOperators.DateToString.dateOf("createdAt")
+                                        .toString("%Y-%m-%d")
+                                        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                                .as("day"),
+                        Aggregation.group("customerId", "productTypeId", "day")
+                                .sum("amount").as("amountTotal")
+                                .sum("commissionAmount").as("commissionTotal")
+                                .count().as("count"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, Transaction.class, Document.class)
+                .map(row -> toRollup(row, startedAt))
+                .buffer(SAVE_BATCH_SIZE)
+                .concatMap(batch -> rollupRepository.saveAll(batch).count())
+                .reduce(0L, Long::sum)
+                .flatMap(written -> mongoTemplate.remove(
+                                Query.query(Criteria.where("day").gte(from).lte(to).and("updatedAt").lt(startedAt)),
+                                DailyRollup.class)
+                        .thenReturn(written))
+                .doOnSuccess(written -> {
+                    rebuildTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                    rebuildRows.increment(written);
+                    logger.info("Rebuilt {} daily rollups for {} - {}", written, from, to);
+                });
+    }
+
+    private static DailyRollup toRollup(Document row, LocalDateTime updatedAt) {
+        Document id = row.get("_id", Document.class);
+        String customerId = id.getString("customerId");
+        String productTypeId = id.getString("productTypeId");
+        LocalDate day = LocalDate.parse(id.getString("day"));
+        return new DailyRollup(DailyRollup.idOf(customerId, productTypeId, day), customerId, productTypeId, day,
+                toBigDecimal(row.get("amountTotal")), toBigDecimal(row.get("commissionTotal")),
+                ((Number) row.get("count")).longValue(), updatedAt);
+    }
+
+    private double freshnessLagSeconds() {
+        LocalDateTime applied = lastApplied.get();
+        if (applied == null) {
+            return Double.NaN;
+        }
+        return Duration.between(applied, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Montos de un lote para un (customerId, productTypeId, day).
+     */
+    private static final class DayTotals {
+        private final String customerId;
+        private final String productTypeId;
+        private final LocalDate day;
+        private BigDecimal amountTotal = BigDecimal.ZERO;
+        private BigDecimal commissionTotal = BigDecimal.ZERO;
+        private long count;
+
+        DayTotals(String customerId, String productTypeId, LocalDate day) {
+            this.customerId = customerId;
+            this.productTypeId = productTypeId;
+            this.day = day;
+        }
+
+        void add(BigDecimal amount, BigDecimal commission) {
+            amountTotal = amountTotal.add(amount);
+            commissionTotal = commissionTotal.add(commission);
+            count++;
+        }
+
+        Update toUpdate(LocalDateTime updatedAt) {
+            return new Update()
+                    .inc("amountTotal", amountTotal)
+                    .inc("commissionTotal", commissionTotal)
+                    .inc("count", count)
+                    .setOnInsert("customerId", customerId)
+                    .setOnInsert("productTypeId", productTypeId)
+                    .setOnInsert("day", day)
+                    .set("updatedAt", updatedAt);
+        }
+    }
+}
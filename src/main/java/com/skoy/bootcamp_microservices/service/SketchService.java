@@ -0,0 +1,225 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.dto.DistributionReport;
+import com.skoy.bootcamp_microservices.dto.ProductDistribution;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.model.DailySketch;
+import com.skoy.bootcamp_microservices.repository.IDailySketchRepository;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analitica de distribuciones sobre sketches diarios. Cada dia cerrado se calcula una sola vez en una
+ * pasada sobre las transacciones y se guarda en daily_sketches; cualquier rango se responde combinando
+ * los dias guardados y calculando solo los que faltan (el dia en curso nunca se guarda). Un cambio en
+ * transacciones de dias cerrados borra sus sketches, que se recalculan en la siguiente consulta.
+ */
+@Service
+public class SketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SketchService.class);
+    private static final String PIPELINE = "distributions";
+
+    private final TransactionQueryClient transactionQueryClient;
+    private final IDailySketchRepository sketchRepository;
+    private final ReportMetrics metrics;
+    private final Counter daysBuilt;
+    private final int quantileK;
+    private final int distinctLgK;
+    private final int accountsMapSize;
+    private final int topAccounts;
+    private final int windowDays;
+    private final int buildConcurrency;
+    // Se incrementa al borrar dias; un calculo empezado antes no guarda sus dias.
+    private final AtomicLong generation = new AtomicLong();
+
+    public SketchService(TransactionQueryClient transactionQueryClient,
+                         IDailySketchRepository sketchRepository,
+                         ReportMetrics metrics,
+                         MeterRegistry meterRegistry,
+                         @Value("${reports.sketches.quantile-k:200}") int quantileK,
+                         @Value("${reports.sketches.distinct-lg-k:12}") int distinctLgK,
+                         @Value("${reports.sketches.accounts-map-size:1024}") int accountsMapSize,
+                         @Value("${reports.sketches.top-accounts:10}") int topAccounts,
+                         @Value("${reports.sketches.window-days:7}") int windowDays,
+                         @Value("${reports.sketches.build-concurrency:4}") int buildConcurrency) {
+        this.transactionQueryClient = transactionQueryClient;
+        this.sketchRepository = sketchRepository;
+        this.metrics = metrics;
+        this.daysBuilt = Counter.builder("report.sketches.days.built").register(meterRegistry);
+        this.quantileK = quantileK;
+        this.distinctLgK = distinctLgK;
+        this.accountsMapSize = accountsMapSize;
+        this.topAccounts = topAccounts;
+        this.windowDays = windowDays;
+        this.buildConcurrency = buildConcurrency;
+    }
+
+    public Mono<DistributionReport> distribution(LocalDate startDate, LocalDate endDate) {
+        return Mono.defer(() -> {
+            Totals totals = new Totals();
+            return sketchRepository.findByDayGreaterThanEqualAndDayLessThanEqual(startDate, endDate)
+                    .doOnNext(stored -> totals.addStored(stored, distinctLgK))
+                    .thenMany(Flux.defer(() -> Flux.fromIterable(missingWindows(startDate, endDate, totals.days))))
+                    .flatMap(this::buildAndStore, buildConcurrency)
+                    .doOnNext(totals::addComputed)
+                    .then(Mono.fromSupplier(() -> totals.toReport(startDate, endDate, topAccounts)));
+        });
+    }
+
+    /**
+     * Recalcula y guarda los sketches de [from, to] (sin incluir el dia en curso), por ejemplo tras
+     * cargar transacciones atrasadas de dias ya cerrados. Devuelve cuantos dias escribio.
+     */
+    public Mono<Long> rebuild(LocalDate from, LocalDate to) {
+        LocalDate lastClosed = LocalDate.now().minusDays(1);
+        if (from.isAfter(lastClosed)) {
+            return Mono.just(0L);
+        }
+        return Flux.fromIterable(DateRange.of(from, to.isAfter(lastClosed) ? lastClosed : to).split(windowDays))
+                .flatMap(this::buildAndStore, buildConcurrency)
+                .map(Map::size)
+                .reduce(0L, Long::sum)
+                .doOnSuccess(written -> logger.info("Rebuilt {} daily sketches for {} - {}", written, from, to));
+    }
+
+    /**
+     * Borra los sketches guardados desde earliestDay (todos si no se conoce). Un cambio solo del dia en
+     * curso no toca nada: ese dia nunca se guarda.
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!event.mayAffectBefore(LocalDate.now())) {
+            return;
+        }
+        generation.incrementAndGet();
+        LocalDate from = event.getEarliestDay();
+        Mono<Void> deleted = from != null ? sketchRepository.deleteByDayGreaterThanEqual(from).then() : sketchRepository.deleteAll();
+        deleted.subscribe(null,
+                ex -> logger.warn("Could not delete stale daily sketches from {}, rebuild them: {}", from, ex.toString()));
+    }
+
+    /**
+     * Dias del rango sin sketch guardado, agrupados en ventanas consecutivas de como maximo windowDays.
+     */
+    private List<DateRange> missingWindows(LocalDate startDate, LocalDate endDate, Set<LocalDate> stored) {
+        LocalDate today = LocalDate.now();
+        LocalDate last = endDate.isAfter(today) ? today : endDate;
+        List<DateRange> windows = new ArrayList<>();
+        LocalDate runStart = null;
+        for (LocalDate day = startDate; !day.isAfter(last); day = day.plusDays(1)) {
+            if (!stored.contains(day)) {
+                runStart = runStart != null ? runStart : day;
+            } else if (runStart != null) {
+                windows.addAll(DateRange.of(runStart, day.minusDays(1)).split(windowDays));
+                runStart = null;
+            }
+        }
+        if (runStart != null) {
+            windows.addAll(DateRange.of(runStart, last).split(windowDays));
+        }
+        return windows;
+    }
+
+    /**
+     * Una pasada sobre las transacciones de la ventana; guarda los dias cerrados, incluidos los vacios.
+     */
+    private Mono<Map<LocalDate, Map<String, TransactionSketch>>> buildAndStore(DateRange window) {
+        return Mono.defer(() -> build(window, generation.get()));
+    }
+
+    private Mono<Map<LocalDate, Map<String, TransactionSketch>>> build(DateRange window, long startGeneration) {
+        LocalDate today = LocalDate.now();
+        return transactionQueryClient.findByDateRange(window.getStartDate(), window.getEndDate(), false)
+                .transform(metrics.streamed(PIPELINE))
+                .filter(metrics.filter(PIPELINE, transaction -> window.contains(transaction.getCreatedAt())
+                        && transaction.getProductType() != null))
+                .collect(() -> emptyDays(window), this::update)
+                .flatMap(days -> {
+                    if (generation.get() != startGeneration) {
+                        // las transacciones cambiaron durante el calculo: se responde pero no se guarda
+                        return Mono.just(days);
+                    }
+                    LocalDateTime now = LocalDateTime.now();
+                    List<DailySketch> closed = days.entrySet().stream()
+                            .filter(day -> day.getKey().isBefore(today))
+                            .map(day -> toStored(day.getKey(), day.getValue(), now))
+                            .toList();
+                    daysBuilt.increment(closed.size());
+                    return sketchRepository.saveAll(closed).then(Mono.just(days));
+                });
+    }
+
+    private static Map<LocalDate, Map<String, TransactionSketch>> emptyDays(DateRange window) {
+        Map<LocalDate, Map<String, TransactionSketch>> days = new TreeMap<>();
+        for (LocalDate day = window.getStartDate(); !day.isAfter(window.getEndDate()); day = day.plusDays(1)) {
+            days.put(day, new HashMap<>());
+        }
+        return days;
+    }
+
+    private void update(Map<LocalDate, Map<String, TransactionSketch>> days, TransactionDTO transaction) {
+        days.get(transaction.getCreatedAt().toLocalDate())
+                .computeIfAbsent(transaction.getProductType().name(),
+                        product -> TransactionSketch.empty(quantileK, distinctLgK, accountsMapSize))
+                .update(transaction);
+    }
+
+    private static DailySketch toStored(LocalDate day, Map<String, TransactionSketch> products, LocalDateTime updatedAt) {
+        Map<String, DailySketch.Product> stored = new HashMap<>();
+        products.forEach((product, sketch) -> stored.put(product, sketch.toStored()));
+        return new DailySketch(day.toString(), day, stored, updatedAt);
+    }
+
+    /**
+     * Acumulado del rango pedido: sketches combinados por producto y dias ya cubiertos.
+     */
+    private static final class Totals {
+        private final Map<String, TransactionSketch> products = new TreeMap<>();
+        private final Set<LocalDate> days = new HashSet<>();
+        private long computed;
+
+        void addStored(DailySketch stored, int distinctLgK) {
+            days.add(stored.getDay());
+            stored.getProducts().forEach((product, sketch) -> add(product, TransactionSketch.fromStored(sketch, distinctLgK)));
+        }
+
+        void addComputed(Map<LocalDate, Map<String, TransactionSketch>> window) {
+            computed += window.size();
+            window.forEach((day, daily) -> {
+                days.add(day);
+                daily.forEach(this::add);
+            });
+        }
+
+        private void add(String product, TransactionSketch sketch) {
+            products.merge(product, sketch, TransactionSketch::merge);
+        }
+
+        DistributionReport toReport(LocalDate startDate, LocalDate endDate, int topAccounts) {
+            Map<String, ProductDistribution> distributions = new TreeMap<>();
+            products.forEach((product, sketch) -> distributions.put(product, sketch.toDistribution(topAccounts)));
+            return new DistributionReport(startDate, endDate, days.size(), computed, distributions);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.OperationType;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.model.ChangeStreamToken;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sigue el change stream de la coleccion de transacciones y publica un {@link TransactionsChangedEvent}
+ * por ventana (reports.change-stream.window) con los clientes afectados, para que las caches invaliden
+ * solo lo necesario. El resume token se guarda despues de publicar, asi que tras un reinicio una ventana
+ * puede repetirse pero no perderse. Requiere Mongo en replica set (ver docker-compose.yml).
+ */
+@Service
+public class TransactionChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionChangeStreamListener.class);
+    private static final String STREAM_ID = "transactions";
+    // ChangeStreamHistoryLost / ChangeStreamFatalError: el token ya no esta en el oplog.
+    private static final Set<Integer> LOST_TOKEN_CODES = Set.of(286, 280);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher publisher;
+    private final Counter changes;
+    private final Counter notifications;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxEventsPerWindow;
+    private Disposable subscription;
+
+    public TransactionChangeStreamListener(ReactiveMongoTemplate mongoTemplate,
+                                           ApplicationEventPublisher publisher,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${reports.change-stream.enabled:false}") boolean enabled,
+                                           @Value("${reports.change-stream.window:500ms}") Duration window,
+                                           @Value("${reports.change-stream.max-events-per-window:10000}") int maxEventsPerWindow) {
+        this.mongoTemplate = mongoTemplate;
+        this.publisher = publisher;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxEventsPerWindow = maxEventsPerWindow;
+        this.changes = Counter.builder("report.changestream.events").register(meterRegistry);
+        this.notifications = Counter.builder("report.changestream.notifications").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.defer(this::watch)
+                .bufferTimeout(maxEventsPerWindow, window, true)
+                .concatMap(this::publish)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true)
+                        .doBeforeRetryAsync(signal -> onStreamError(signal.failure())))
+                .subscribe();
+        logger.info("Listening to transaction changes (window {})", window);
+    }
+
+    private Flux<ChangeStreamEvent<Transaction>> watch() {
+        return mongoTemplate.findById(STREAM_ID, ChangeStreamToken.class)
+                .map(stored -> Optional.of((BsonValue) BsonDocument.parse(stored.getToken().toJson())))
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(token -> {
+                    ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                            .returnFullDocumentOnUpdate();
+                    token.ifPresent(options::resumeAfter);
+                    return mongoTemplate.changeStream(mongoTemplate.getCollectionName(Transaction.class),
+                            options.build(), Transaction.class);
+                });
+    }
+
+    private Mono<Void> publish(List<ChangeStreamEvent<Transaction>> events) {
+        Set<String> customerIds = new HashSet<>();
+        boolean allCustomers = false;
+        LocalDate earliestDay = LocalDate.MAX;
+        for (ChangeStreamEvent<Transaction> event : events) {
+            Transaction body = event.getBody();
+            if (body != null && body.getCustomerId() != null) {
+                customerIds.add(body.getCustomerId());
+            } else {
+                allCustomers = true;
+            }
+            // de una actualizacion solo se ve el documento nuevo, no el dia que tenia antes
+            if (body == null || body.getCreatedAt() == null || event.getOperationType() != OperationType.INSERT) {
+                earliestDay = LocalDate.MIN;
+            } else if (body.getCreatedAt().toLocalDate().isBefore(earliestDay)) {
+                earliestDay = body.getCreatedAt().toLocalDate();
+            }
+        }
+        changes.increment(events.size());
+        notifications.increment();
+        publisher.publishEvent(new TransactionsChangedEvent(Set.copyOf(customerIds), allCustomers,
+                earliestDay.equals(LocalDate.MIN) ? null : earliestDay));
+
+        BsonValue token = events.get(events.size() - 1).getResumeToken();
+        if (token == null) {
+            return Mono.empty();
+        }
+        Document stored = Document.parse(token.asDocument().toJson());
+        return mongoTemplate.save(new ChangeStreamToken(STREAM_ID, stored, LocalDateTime.now()))
+                .then();
+    }
+
+    private Mono<Void> onStreamError(Throwable failure) {
+        logger.warn("Transaction change stream failed, resuming: {}", failure.toString());
+        if (!isLostToken(failure)) {
+            return Mono.empty();
+        }
+        // El token caduco: se descarta y se invalida todo porque hubo cambios no vistos.
+        publisher.publishEvent(new TransactionsChangedEvent(Set.of(), true, null));
+        return mongoTemplate.remove(new ChangeStreamToken(STREAM_ID, null, null)).then();
+    }
+
+    private static boolean isLostToken(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongo && LOST_TOKEN_CODES.contains(mongo.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.skoy.bootcamp_microservices.dto.IngestionResult;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Escribe transacciones en la coleccion local con micro-lotes (tamano o tiempo, lo que ocurra primero)
+ * y bulk writes desordenados. Cada transaccion se inserta con un upsert por id que solo asigna campos
+ * al insertar, de modo que reenviar un evento no lo duplica ni lo modifica. Cada lote con inserciones
+ * publica un {@link TransactionsChangedEvent} para invalidar las caches sin depender del change stream.
+ */
+@Service
+public class TransactionIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionIngestionService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher publisher;
+    private final int batchSize;
+    private final Duration batchTimeout;
+    private final int writeConcurrency;
+    private final boolean applyRollups;
+    private final Sinks.Many<Pending> queue;
+    private final Disposable worker;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter inserted;
+    private final Counter duplicates;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public TransactionIngestionService(ReactiveMongoTemplate mongoTemplate,
+                                       RollupService rollupService,
+                                       ApplicationEventPublisher publisher,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${ingestion.batch-size:1000}") int batchSize,
+                                       @Value("${ingestion.batch-timeout:50ms}") Duration batchTimeout,
+                                       @Value("${ingestion.write-concurrency:4}") int writeConcurrency,
+                                       @Value("${ingestion.queue-capacity:16384}") int queueCapacity,
+                                       @Value("${ingestion.apply-rollups:true}") boolean applyRollups) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollupService = rollupService;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+        this.writeConcurrency = writeConcurrency;
+        this.applyRollups = applyRollups;
+        this.batchTimer = Timer.builder("report.ingestion.batch").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("report.ingestion.batch.size").register(meterRegistry);
+        this.inserted = counter(meterRegistry, "inserted");
+        this.duplicates = counter(meterRegistry, "duplicate");
+        this.rejected = counter(meterRegistry, "rejected");
+        this.failed = counter(meterRegistry, "failed");
+
+        // Cola acotada compartida por los eventos sueltos: si Mongo se atrasa se llena y submit rechaza.
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<Pending>get(queueCapacity).get());
+        this.worker = queue.asFlux()
+                .bufferTimeout(batchSize, batchTimeout, true)
+                .flatMap(pendings -> Mono.defer(() -> writePending(pendings))
+                        .onErrorResume(ex -> fail(pendings, ex)), writeConcurrency)
+                .subscribe();
+        meterRegistry.gauge("report.ingestion.queue", queue, sink -> Objects.requireNonNullElse(sink.scan(Scannable.Attr.BUFFERED), 0));
+    }
+
+    /**
+     * Ingesta de un flujo (NDJSON o arreglo). La demanda hacia el productor queda limitada por
+     * writeConcurrency lotes en vuelo, asi que un Mongo lento frena la lectura del cuerpo.
+     */
+    public Mono<IngestionResult> ingest(Flux<Transaction> transactions) {
+        return transactions
+                .bufferTimeout(batchSize, batchTimeout, true)
+                .flatMap(batch -> write(batch).map(BatchOutcome::toResult), writeConcurrency)
+                .reduce(new IngestionResult(), IngestionResult::merge);
+    }
+
+    /**
+     * Encola un evento suelto para el siguiente micro-lote y completa cuando fue escrito.
+     * Devuelve vacio si la cola esta llena (el llamador debe reintentar mas tarde).
+     */
+    public Mono<IngestionResult> submit(Transaction transaction) {
+        return Mono.defer(() -> {
+            Sinks.One<IngestionResult> done = Sinks.one();
+            if (!offer(new Pending(transaction, done))) {
+                return Mono.empty();
+            }
+            return done.asMono();
+        });
+    }
+
+    private synchronized boolean offer(Pending pending) {
+        // Sinks.Many no admite emisiones concurrentes; el lock solo cubre el encolado.
+        return queue.tryEmitNext(pending).isSuccess();
+    }
+
+    private Mono<Void> writePending(List<Pending> pendings) {
+        List<Transaction> batch = pendings.stream().map(Pending::transaction).toList();
+        return write(batch)
+                .doOnNext(outcome -> {
+                    for (int i = 0; i < pendings.size(); i++) {
+                        pendings.get(i).done().tryEmitValue(outcome.resultOf(i));
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Un lote que lanza (conversion del documento, un listener del evento) falla solo a sus llamadores;
+     * el worker sigue atendiendo la cola.
+     */
+    private Mono<Void> fail(List<Pending> pendings, Throwable ex) {
+        logger.error("Ingestion of {} queued transactions failed: {}", pendings.size(), ex.toString());
+        pendings.forEach(pending -> pending.done().tryEmitError(ex));
+        return Mono.empty();
+    }
+
+    private Mono<BatchOutcome> write(List<Transaction> batch) {
+        List<Integer> indexes = new ArrayList<>(batch.size());
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        Set<Integer> invalid = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+            if (transaction.getId() == null || transaction.getId().isBlank()) {
+                invalid.add(i);
+                continue;
+            }
+            indexes.add(i);
+            bulk.upsert(Query.query(Criteria.where("_id").is(transaction.getId())), insertOnly(transaction));
+        }
+        if (indexes.isEmpty()) {
+            return Mono.just(record(new BatchOutcome(batch.size(), Set.of(), invalid, Set.of())));
+        }
+
+        long start = System.nanoTime();
+        return bulk.execute()
+                .map(result -> new BatchOutcome(batch.size(), upserted(result, indexes), invalid, Set.of()))
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    Set<Integer> errors = ex.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .map(indexes::get)
+                            .collect(Collectors.toSet());
+                    logger.warn("Bulk write of {} transactions had {} errors", indexes.size(), errors.size());
+                    return Mono.just(new BatchOutcome(batch.size(), upserted(ex.getWriteResult(), indexes), invalid, errors));
+                })
+                .onErrorResume(ex -> {
+                    logger.error("Bulk write of {} transactions failed: {}", indexes.size(), ex.toString());
+                    return Mono.just(new BatchOutcome(batch.size(), Set.of(), invalid, new HashSet<>(indexes)));
+                })
+                .doOnNext(outcome -> {
+                    batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                    batchSizes.record(indexes.size());
+                    record(outcome);
+                })
+                .flatMap(outcome -> applyRollups(batch, outcome)
+                        .doOnTerminate(() -> publishChanges(batch, outcome))
+                        .thenReturn(outcome));
+    }
+
+    /**
+     * Despues de los rollups, para que una lectura posterior a la invalidacion ya los vea.
+     */
+    private void publishChanges(List<Transaction> batch, BatchOutcome outcome) {
+        if (outcome.inserted().isEmpty()) {
+            return;
+        }
+        Set<String> customerIds = new HashSet<>();
+        LocalDate earliestDay = LocalDate.MAX;
+        for (int index : outcome.inserted()) {
+            Transaction transaction = batch.get(index);
+            if (transaction.getCustomerId() != null) {
+                customerIds.add(transaction.getCustomerId());
+            }
+            LocalDate day = transaction.getCreatedAt() != null ? transaction.getCreatedAt().toLocalDate() : LocalDate.MIN;
+            if (day.isBefore(earliestDay)) {
+                earliestDay = day;
+            }
+        }
+        publisher.publishEvent(new TransactionsChangedEvent(Set.copyOf(customerIds), false,
+                earliestDay.equals(LocalDate.MIN) ? null : earliestDay));
+    }
+
+    /**
+     * Solo las transacciones nuevas mueven los rollups; el lote entero se aplica con un bulk write.
+     */
+    private Mono<Void> applyRollups(List<Transaction> batch, BatchOutcome outcome) {
+        if (!applyRollups || outcome.inserted().isEmpty()) {
+            return Mono.empty();
+        }
+        List<Transaction> fresh = outcome.inserted().stream().map(batch::get).toList();
+        return rollupService.apply(fresh)
+                .onErrorResume(ex -> {
+                    logger.warn("Could not apply daily rollups, rebuild the affected range: {}", ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Update insertOnly(Transaction transaction) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(transaction, document);
+        document.remove("_id");
+        return Update.fromDocument(new Document("$setOnInsert", document));
+    }
+
+    private static Set<Integer> upserted(BulkWriteResult result, List<Integer> indexes) {
+        if (!result.wasAcknowledged()) {
+            return Set.of();
+        }
+        return result.getUpserts().stream()
+                .map(BulkWriteUpsert::getIndex)
+                .map(indexes::get)
+                .collect(Collectors.toSet());
+    }
+
+    private BatchOutcome record(BatchOutcome outcome) {
+        IngestionResult result = outcome.toResult();
+        inserted.increment(result.getInserted());
+        duplicates.increment(result.getDuplicates());
+        rejected.increment(result.getRejected());
+        failed.increment(result.getFailed());
+        return outcome;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("report.ingestion.transactions")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        queue.tryEmitComplete();
+        worker.dispose();
+    }
+
+    private record Pending(Transaction transaction, Sinks.One<IngestionResult> done) {
+    }
+
+    /**
+     * Posiciones del lote (no de la operacion bulk) segun como termino cada transaccion.
+     */
+    private record BatchOutcome(int size, Set<Integer> inserted, Set<Integer> invalid, Set<Integer> failed) {
+
+        IngestionResult toResult() {
+            long duplicates = size - inserted.size() - invalid.size() - failed.size();
+            return new IngestionResult(size, inserted.size(), duplicates, invalid.size(), failed.size());
+        }
+
+        IngestionResult resultOf(int index) {
+            return new IngestionResult(1,
+                    inserted.contains(index) ? 1 : 0,
+                    inserted.contains(index) || invalid.contains(index) || failed.contains(index) ? 0 : 1,
+                    invalid.contains(index) ? 1 : 0,
+                    failed.contains(index) ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.DownstreamClients;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.TransactionQueryModeEnum;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.UDate;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Consultas por rango de fechas al servicio de transacciones.
+ * En modo FILTERED el rango y la condicion de comision viajan al servicio de transacciones y la
+ * respuesta se lee como NDJSON con backpressure; si el servicio rechaza el filtro se recurre a
+ * paginas de tamaño fijo sin parametros de filtro, y el rango y la comision se filtran aqui.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionQueryClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionQueryClient.class);
+
+    // por valor: un estado no estandar no tiene HttpStatus y Set.of(...).contains(null) lanza NPE
+    private static final Set<Integer> UNSUPPORTED_QUERY = Set.of(
+            HttpStatus.BAD_REQUEST.value(), HttpStatus.NOT_FOUND.value(), HttpStatus.METHOD_NOT_ALLOWED.value(),
+            HttpStatus.NOT_ACCEPTABLE.value(), HttpStatus.NOT_IMPLEMENTED.value());
+
+    private final DownstreamClients clients;
+    private final ResilientCalls resilience;
+
+    @Value("${reports.transactions.query-mode:FILTERED}")
+    private TransactionQueryModeEnum queryMode;
+
+    @Value("${reports.transactions.page-size:5000}")
+    private int pageSize;
+
+    /**
+     * Transacciones creadas entre startDate y endDate (ambos inclusive).
+     * El resultado puede contener elementos fuera del rango si el servicio ignora el filtro,
+     * por lo que el llamador debe seguir aplicando su propio filtro.
+     */
+    public Flux<TransactionDTO> findByDateRange(LocalDate startDate, LocalDate endDate, boolean withCommissionOnly) {
+        return resilience.stream(DownstreamClients.TRANSACTION, () -> query(startDate, endDate, withCommissionOnly));
+    }
+
+    private Flux<TransactionDTO> query(LocalDate startDate, LocalDate endDate, boolean withCommissionOnly) {
+        if (queryMode == TransactionQueryModeEnum.PAGED) {
+            return findPaged(uri -> rangeUri(uri, startDate, endDate, withCommissionOnly));
+        }
+        return findFiltered(startDate, endDate, withCommissionOnly)
+                .onErrorResume(WebClientResponseException.class, ex -> {
+                    if (!UNSUPPORTED_QUERY.contains(ex.getStatusCode().value())) {
+                        return Flux.error(ex);
+                    }
+                    logger.warn("Transaction service rejected filtered query ({}), falling back to unfiltered paged query",
+                            ex.getStatusCode());
+                    DateRange range = DateRange.of(startDate, endDate);
+                    return findPaged(uri -> uri.path("/transactions"))
+                            .filter(transaction -> range.contains(transaction.getCreatedAt())
+                                    && (!withCommissionOnly || hasCommission(transaction)));
+                });
+    }
+
+    private Flux<TransactionDTO> findFiltered(LocalDate startDate, LocalDate endDate, boolean withCommissionOnly) {
+        return clients.transaction()
+                .get()
+                .uri(uri -> rangeUri(uri, startDate, endDate, withCommissionOnly).build())
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToFlux(TransactionDTO.class);
+    }
+
+    /**
+     * Recorre las paginas de la consulta con a lo sumo una pagina pedida por delante del consumidor.
+     * Una pagina que termina en el mismo id que la anterior no avanza (el servicio ignora page y
+     * devuelve justo pageSize filas): se descarta y el recorrido termina.
+     */
+    private Flux<TransactionDTO> findPaged(Function<UriBuilder, UriBuilder> query) {
+        return fetchPage(query, 0)
+                .expand(page -> page.items().size() == pageSize
+                        ? fetchPage(query, page.number() + 1).filter(next -> !next.repeats(page))
+                        : Mono.empty())
+                .concatMapIterable(Page::items, 1);
+    }
+
+    private Mono<Page> fetchPage(Function<UriBuilder, UriBuilder> query, int number) {
+        return clients.transaction()
+                .get()
+                .uri(uri -> query.apply(uri)
+                        .queryParam("page", number)
+                        .queryParam("size", pageSize)
+                        .build())
+                .retrieve()
+                .bodyToFlux(TransactionDTO.class)
+                .collectList()
+                .map(items -> new Page(number, items));
+    }
+
+    private UriBuilder rangeUri(UriBuilder uri, LocalDate startDate, LocalDate endDate, boolean withCommissionOnly) {
+        UriBuilder builder = uri.path("/transactions")
+                .queryParam("dateFrom", UDate.convertToString(startDate))
+                .queryParam("dateTo", UDate.convertToString(endDate));
+        if (withCommissionOnly) {
+            builder.queryParam("commissionGreaterThan", 0);
+        }
+        return builder;
+    }
+
+    private static boolean hasCommission(TransactionDTO transaction) {
+        return transaction.getCommissionAmount() != null && transaction.getCommissionAmount().compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    /**
+     * Una pagina de transacciones; si el servicio ignora page/size devuelve mas elementos que
+     * pageSize y la expansion se detiene tras la primera pagina.
+     */
+    private record Page(int number, List<TransactionDTO> items) {
+
+        boolean repeats(Page previous) {
+            return !items.isEmpty() && Objects.equals(lastId(), previous.lastId());
+        }
+
+        private String lastId() {
+            return items.isEmpty() ? null : items.get(items.size() - 1).getId();
+        }
+    }
+}
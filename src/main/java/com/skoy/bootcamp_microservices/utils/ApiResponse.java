@@ -1,10 +1,17 @@
 package com.skoy.bootcamp_microservices.utils;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skoy.bootcamp_microservices.enums.SectionStatusEnum;
+
+import java.util.Map;
+
 public class ApiResponse<T> {
 
     private String message;
     private T data;
     private int statusCode;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, SectionStatusEnum> sections;
 
     public ApiResponse() {
     }
@@ -15,6 +22,11 @@ public class ApiResponse<T> {
         this.statusCode = statusCode;
     }
 
+    public ApiResponse(String message, T data, int statusCode, Map<String, SectionStatusEnum> sections) {
+        this(message, data, statusCode);
+        this.sections = sections;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -39,4 +51,12 @@ public class ApiResponse<T> {
         this.statusCode = statusCode;
     }
 
+    public Map<String, SectionStatusEnum> getSections() {
+        return sections;
+    }
+
+    public void setSections(Map<String, SectionStatusEnum> sections) {
+        this.sections = sections;
+    }
+
 }
@@ -0,0 +1,62 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rango de fechas inclusivo precalculado como segundos epoch, para filtrar
+ * {@link LocalDateTime} sin convertir cada elemento a {@link LocalDate}.
+ */
+public final class DateRange {
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final long fromEpochSecond;
+    private final long untilEpochSecond;
+
+    private DateRange(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.fromEpochSecond = startDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.untilEpochSecond = endDate.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static DateRange of(LocalDate startDate, LocalDate endDate) {
+        return new DateRange(startDate, endDate);
+    }
+
+    public boolean contains(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return false;
+        }
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return epochSecond >= fromEpochSecond && epochSecond < untilEpochSecond;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long days() {
+        return endDate.toEpochDay() - startDate.toEpochDay() + 1;
+    }
+
+    /**
+     * Ventanas consecutivas de windowDays dias que cubren el rango; la ultima puede ser mas corta.
+     */
+    public List<DateRange> split(int windowDays) {
+        List<DateRange> windows = new ArrayList<>();
+        for (LocalDate start = startDate; !start.isAfter(endDate); start = start.plusDays(windowDays)) {
+            LocalDate end = start.plusDays(windowDays - 1L);
+            windows.add(new DateRange(start, end.isAfter(endDate) ? endDate : end));
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,56 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Presupuesto de tiempo de un reporte, propagado en el Context de Reactor para que
+ * cada llamada remota del fan-out use solo el tiempo que queda.
+ */
+public final class Deadline {
+
+    private static final String CONTEXT_KEY = Deadline.class.getName();
+
+    private Deadline() {
+    }
+
+    public static Context within(Duration budget) {
+        return Context.of(CONTEXT_KEY, System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Como {@link #within}, salvo que el llamador ya haya fijado un presupuesto (p. ej. un job asincrono).
+     */
+    public static Function<Context, Context> withinIfAbsent(Duration budget) {
+        return context -> context.hasKey(CONTEXT_KEY) ? context : context.putAll(within(budget).readOnly());
+    }
+
+    /**
+     * Aplica a source el tiempo restante del presupuesto del Context, si existe.
+     */
+    public static <T> Mono<T> apply(Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            Duration remaining = remaining(context);
+            if (remaining == null) {
+                return source;
+            }
+            if (remaining.isZero()) {
+                return Mono.error(new TimeoutException("Report deadline exceeded"));
+            }
+            return source.timeout(remaining);
+        });
+    }
+
+    private static Duration remaining(ContextView context) {
+        Long deadline = context.getOrDefault(CONTEXT_KEY, null);
+        if (deadline == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+}
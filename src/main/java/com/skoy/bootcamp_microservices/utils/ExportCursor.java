@@ -0,0 +1,42 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor reanudable de exportacion: posicion (createdAt, id) del ultimo elemento entregado,
+ * codificada como base64url de "createdAt|id" (createdAt en ISO-8601, vacio si es nulo).
+ */
+public record ExportCursor(LocalDateTime createdAt, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ExportCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid export cursor", ex);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid export cursor");
+        }
+        String createdAt = raw.substring(0, separator);
+        try {
+            return new ExportCursor(createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt), raw.substring(separator + 1));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid export cursor", ex);
+        }
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
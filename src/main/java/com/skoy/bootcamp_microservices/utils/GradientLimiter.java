@@ -0,0 +1,83 @@
+package com.skoy.bootcamp_microservices.utils;
+
+/**
+ * Limite de concurrencia adaptativo estilo gradiente: compara la latencia de cada respuesta con un
+ * promedio de largo plazo; si la latencia sube (se forma cola) el limite baja y si se mantiene, sube
+ * de a sqrt(limite). Con adaptive=false el limite queda fijo en initialLimit.
+ */
+public final class GradientLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_FACTOR = 0.9;
+
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttAlpha;
+
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+
+    public GradientLimiter(boolean adaptive, int initialLimit, int minLimit, int maxLimit,
+                           double smoothing, double rttTolerance, int longWindow) {
+        this.adaptive = adaptive;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.limit = initialLimit;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera sin muestra (p. ej. el cliente cancelo y la latencia no dice nada de la capacidad).
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    /**
+     * Libera y ajusta el limite con la latencia observada; dropped indica un fallo por sobrecarga.
+     */
+    public synchronized void release(long rttNanos, boolean dropped) {
+        int inFlightAtEnd = inFlight--;
+        if (!adaptive) {
+            return;
+        }
+        if (dropped) {
+            limit = Math.max(minLimit, limit * DROP_FACTOR);
+            return;
+        }
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - longRttAlpha) + rttNanos * longRttAlpha;
+        if (longRttNanos > 2.0 * rttNanos) {
+            // Tras un episodio de sobrecarga el promedio largo queda alto; se le deja bajar mas rapido.
+            longRttNanos *= 0.95;
+        }
+        if (inFlightAtEnd < limit / 2) {
+            // Con poca concurrencia la latencia no refleja la capacidad: no se ajusta.
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,86 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Suma por clave en una sola pasada: cada elemento se acumula en un contador long
+ * (unidades menores a la escala indicada) y los BigDecimal solo se construyen al emitir.
+ * La memoria es O(numero de claves), no O(numero de elementos). Nada se redondea: un valor con
+ * mas decimales que la escala, o un total que no cabe en un long, se suma aparte en BigDecimal,
+ * asi que el resultado es el mismo que el de BigDecimal::add.
+ */
+public final class KeyedSum {
+
+    public static final int MONEY_SCALE = 2;
+
+    private final int scale;
+    private final Map<String, Total> totals = new HashMap<>();
+
+    private KeyedSum(int scale) {
+        this.scale = scale;
+    }
+
+    public static <T> Mono<Map<String, BigDecimal>> sumByKey(Flux<T> source,
+                                                             Function<T, String> keyExtractor,
+                                                             Function<T, BigDecimal> valueExtractor) {
+        return sumByKey(source, keyExtractor, valueExtractor, MONEY_SCALE);
+    }
+
+    public static <T> Mono<Map<String, BigDecimal>> sumByKey(Flux<T> source,
+                                                             Function<T, String> keyExtractor,
+                                                             Function<T, BigDecimal> valueExtractor,
+                                                             int scale) {
+        return source
+                .collect(() -> new KeyedSum(scale),
+                        (acc, item) -> acc.add(keyExtractor.apply(item), valueExtractor.apply(item)))
+                .map(KeyedSum::toMap);
+    }
+
+    /**
+     * Combina dos resultados parciales de sumByKey (p. ej. de ventanas de fechas distintas).
+     */
+    public static Map<String, BigDecimal> merge(Map<String, BigDecimal> left, Map<String, BigDecimal> right) {
+        Map<String, BigDecimal> result = new HashMap<>(left);
+        right.forEach((key, value) -> result.merge(key, value, BigDecimal::add));
+        return result;
+    }
+
+    /**
+     * Acumula value bajo key sin redondear; claves o valores nulos se ignoran.
+     */
+    public void add(String key, BigDecimal value) {
+        if (key == null || value == null) {
+            return;
+        }
+        Total total = totals.computeIfAbsent(key, k -> new Total());
+        if (value.scale() <= scale) {
+            try {
+                total.minorUnits = Math.addExact(total.minorUnits, value.movePointRight(scale).longValueExact());
+                return;
+            } catch (ArithmeticException overflow) {
+                // no cabe en un long: se suma en BigDecimal
+            }
+        }
+        total.exact = total.exact == null ? value : total.exact.add(value);
+    }
+
+    public Map<String, BigDecimal> toMap() {
+        Map<String, BigDecimal> result = new HashMap<>(totals.size() * 2);
+        totals.forEach((key, total) -> {
+            BigDecimal sum = BigDecimal.valueOf(total.minorUnits, scale);
+            result.put(key, total.exact == null ? sum : sum.add(total.exact));
+        });
+        return result;
+    }
+
+    private static final class Total {
+        private long minorUnits;
+        private BigDecimal exact;
+    }
+}
@@ -0,0 +1,55 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Avance de un reporte, propagado en el Context de Reactor: cada etapa declara cuantas unidades
+ * espera y las va completando, y el listener recibe el porcentaje cada vez que cambia.
+ * Sin listener en el Context (peticiones sincronas) no hace nada.
+ */
+public final class Progress {
+
+    private static final String CONTEXT_KEY = Progress.class.getName();
+
+    private final AtomicInteger expected = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger lastPercent = new AtomicInteger();
+    private final IntConsumer listener;
+
+    private Progress(IntConsumer listener) {
+        this.listener = listener;
+    }
+
+    public static Context reporting(IntConsumer percentListener) {
+        return Context.of(CONTEXT_KEY, new Progress(percentListener));
+    }
+
+    public static void expect(ContextView context, int units) {
+        Progress progress = context.getOrDefault(CONTEXT_KEY, null);
+        if (progress != null) {
+            progress.expected.addAndGet(units);
+        }
+    }
+
+    public static void advance(ContextView context) {
+        Progress progress = context.getOrDefault(CONTEXT_KEY, null);
+        if (progress != null) {
+            progress.advance();
+        }
+    }
+
+    private void advance() {
+        int done = completed.incrementAndGet();
+        int total = Math.max(expected.get(), done);
+        // 100 lo reporta quien termina el trabajo, no la ultima unidad conocida
+        int percent = Math.min(99, done * 100 / total);
+        int previous = lastPercent.getAndAccumulate(percent, Math::max);
+        if (percent > previous) {
+            listener.accept(percent);
+        }
+    }
+}
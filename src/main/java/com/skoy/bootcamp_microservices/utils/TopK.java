@@ -0,0 +1,53 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Seleccion de los K mayores elementos de un flujo con un heap de tamaño fijo:
+ * O(n log k) y memoria O(k), sin ordenar ni retener el flujo completo.
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap;
+
+    private TopK(int k, Comparator<? super T> comparator) {
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(k + 1, comparator);
+    }
+
+    /**
+     * Los k mayores elementos segun comparator, ordenados de mayor a menor.
+     */
+    public static <T> Mono<List<T>> of(Flux<T> source, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return source.then(Mono.just(List.of()));
+        }
+        return source
+                .collect(() -> new TopK<T>(k, comparator), TopK::offer)
+                .map(TopK::toSortedList);
+    }
+
+    public void offer(T item) {
+        if (heap.size() < k) {
+            heap.offer(item);
+        } else if (comparator.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.offer(item);
+        }
+    }
+
+    public List<T> toSortedList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(comparator.reversed());
+        return result;
+    }
+}
@@ -2,8 +2,10 @@ package com.skoy.bootcamp_microservices;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class BootcampMicroservicesApplicationTests {
 
 	@Test
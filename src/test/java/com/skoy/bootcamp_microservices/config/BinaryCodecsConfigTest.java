@@ -0,0 +1,105 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los codecs CBOR emiten y leen un Flux elemento a elemento, con el mismo formato que un List de Jackson.
+ */
+class BinaryCodecsConfigTest {
+
+	private static final ResolvableType ACCOUNT = ResolvableType.forClass(BankAccountDTO.class);
+	private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+	private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.cbor().build();
+	private final BinaryCodecsConfig.CborEncoder encoder = new BinaryCodecsConfig.CborEncoder(mapper);
+	private final BinaryCodecsConfig.CborDecoder decoder = new BinaryCodecsConfig.CborDecoder(mapper);
+
+	@Test
+	void encoderWritesEachElementAsItArrives() {
+		Sinks.Many<BankAccountDTO> accounts = Sinks.many().unicast().onBackpressureBuffer();
+
+		StepVerifier.create(encoder.encode(accounts.asFlux(), BUFFERS, ACCOUNT, MediaType.APPLICATION_CBOR, null))
+				.then(() -> accounts.tryEmitNext(account(1)))
+				// inicio del array y el primer elemento, sin esperar al resto
+				.expectNextCount(2)
+				.then(() -> accounts.tryEmitNext(account(2)))
+				.expectNextCount(1)
+				.then(accounts::tryEmitComplete)
+				.expectNextCount(1)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void encodedStreamIsAPlainCborArray() throws IOException {
+		List<BankAccountDTO> accounts = Flux.range(0, 1_000).map(BinaryCodecsConfigTest::account).collectList().block();
+
+		byte[] encoded = join(encoder.encode(Flux.fromIterable(accounts), BUFFERS, ACCOUNT, MediaType.APPLICATION_CBOR, null));
+
+		assertThat(mapper.readValue(encoded, new TypeReference<List<BankAccountDTO>>() { })).isEqualTo(accounts);
+	}
+
+	@Test
+	void decoderReadsArraysSplitAcrossBuffers() throws IOException {
+		List<BankAccountDTO> accounts = Flux.range(0, 1_000).map(BinaryCodecsConfigTest::account).collectList().block();
+		// definido (de writeValueAsBytes) e indefinido (del encoder)
+		for (byte[] encoded : List.of(mapper.writeValueAsBytes(accounts),
+				join(encoder.encode(Flux.fromIterable(accounts), BUFFERS, ACCOUNT, MediaType.APPLICATION_CBOR, null)))) {
+			Flux<DataBuffer> chunks = Flux.range(0, (encoded.length + 6) / 7)
+					.map(i -> BUFFERS.wrap(Arrays.copyOfRange(encoded, i * 7, Math.min(encoded.length, i * 7 + 7))));
+
+			assertThat(decoder.decode(chunks, ACCOUNT, MediaType.APPLICATION_CBOR, null).collectList().block())
+					.isEqualTo(accounts);
+		}
+	}
+
+	@Test
+	void decoderEmitsElementsBeforeTheBodyEnds() throws IOException {
+		byte[] first = mapper.writeValueAsBytes(account(1));
+		Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+
+		StepVerifier.create(decoder.decode(body.asFlux(), ACCOUNT, MediaType.APPLICATION_CBOR, null))
+				.then(() -> {
+					body.tryEmitNext(BUFFERS.wrap(new byte[]{(byte) 0x9F}));
+					body.tryEmitNext(BUFFERS.wrap(first));
+				})
+				.expectNext(account(1))
+				.then(() -> {
+					body.tryEmitNext(BUFFERS.wrap(new byte[]{(byte) 0xFF}));
+					body.tryEmitComplete();
+				})
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	private static byte[] join(Flux<DataBuffer> buffers) {
+		DataBuffer joined = DataBufferUtils.join(buffers).block();
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		return bytes;
+	}
+
+	private static BankAccountDTO account(int i) {
+		return new BankAccountDTO("ba" + i, "c" + i % 10, "SAVINGS", BigDecimal.valueOf(i, 2));
+	}
+}
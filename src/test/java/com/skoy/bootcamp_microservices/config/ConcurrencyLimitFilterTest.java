@@ -0,0 +1,97 @@
+package com.skoy.bootcamp_microservices.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Limites por patron de ruta sobre un controlador con las mismas formas de ruta que ReportController.
+ */
+class ConcurrencyLimitFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private ConcurrencyLimitFilter filter;
+
+	@BeforeEach
+	void setUp() throws JsonProcessingException {
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerSingleton("routes", Routes.class);
+		context.refresh();
+		RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+		handlerMapping.setApplicationContext(context);
+		handlerMapping.afterPropertiesSet();
+
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		ConcurrencyLimitProperties.PriorityClass interactive = new ConcurrencyLimitProperties.PriorityClass();
+		interactive.setInitialLimit(2);
+		ConcurrencyLimitProperties.PriorityClass streaming = new ConcurrencyLimitProperties.PriorityClass();
+		streaming.setAdaptive(false);
+		streaming.setInitialLimit(1);
+		properties.setClasses(Map.of("interactive", interactive, "streaming", streaming));
+		properties.setEndpoints(Map.of("customer-summary/batch", "streaming"));
+		filter = new ConcurrencyLimitFilter(properties, meterRegistry, new ObjectMapper(), handlerMapping);
+	}
+
+	@Test
+	void limiterIsKeyedByRoutePattern() {
+		call(MockServerHttpRequest.get("/api/v1/reports/customer-summary/c1"));
+		call(MockServerHttpRequest.get("/api/v1/reports/customer-summary/c2"));
+		call(MockServerHttpRequest.post("/api/v1/reports/customer-summary/batch"));
+
+		assertThat(meterRegistry.find("report.limiter.limit").gauges())
+				.extracting(gauge -> gauge.getId().getTag("endpoint") + "=" + gauge.getId().getTag("class"))
+				.containsExactlyInAnyOrder("customer-summary/{customerId}=interactive", "customer-summary/batch=streaming");
+	}
+
+	@Test
+	void batchRouteHasItsOwnLimit() {
+		Sinks.Empty<Void> batchRunning = Sinks.empty();
+		MockServerWebExchange batch = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/reports/customer-summary/batch"));
+		filter.filter(batch, exchange -> batchRunning.asMono()).subscribe();
+
+		MockServerWebExchange secondBatch = call(MockServerHttpRequest.post("/api/v1/reports/customer-summary/batch"));
+		MockServerWebExchange summary = call(MockServerHttpRequest.get("/api/v1/reports/customer-summary/c1"));
+
+		assertThat(secondBatch.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(summary.getResponse().getStatusCode()).isNull();
+		batchRunning.tryEmitEmpty();
+	}
+
+	private MockServerWebExchange call(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		filter.filter(exchange, ignored -> Mono.empty()).block();
+		return exchange;
+	}
+
+	@RestController
+	@RequestMapping("/api/v1/reports")
+	static class Routes {
+
+		@GetMapping("/customer-summary/{customerId}")
+		Mono<String> summary() {
+			return Mono.just("ok");
+		}
+
+		@PostMapping("/customer-summary/batch")
+		Mono<String> batch() {
+			return Mono.just("ok");
+		}
+	}
+}
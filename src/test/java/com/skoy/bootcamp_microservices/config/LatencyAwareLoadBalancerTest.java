@@ -0,0 +1,114 @@
+package com.skoy.bootcamp_microservices.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Balanceo entre instancias simuladas: cada host responde con su propia latencia y se cuenta
+ * cuantas peticiones recibe.
+ */
+class LatencyAwareLoadBalancerTest {
+
+	private static final Map<String, Duration> LATENCY = Map.of(
+			"fast", Duration.ofMillis(5),
+			"slow", Duration.ofMillis(50),
+			"new", Duration.ofMillis(50));
+
+	private final AtomicReference<List<ServiceInstance>> registered = new AtomicReference<>();
+	private final Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+	private final ExchangeFunction exchange = request -> {
+		String host = request.url().getHost();
+		received.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet();
+		return Mono.delay(LATENCY.get(host)).thenReturn(ClientResponse.create(HttpStatus.OK).build());
+	};
+	private LatencyAwareLoadBalancer balancer;
+
+	@BeforeEach
+	void setUp() {
+		registered.set(List.of(instance("fast"), instance("slow")));
+		WebClientProperties.LoadBalancing settings = new WebClientProperties.LoadBalancing();
+		settings.setInstancesRefresh(Duration.ofMillis(50));
+		balancer = new LatencyAwareLoadBalancer("transaction-service", new FakeDiscovery(), settings, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void newInstanceDoesNotReceiveTheBurst() throws InterruptedException {
+		send(40, 1);
+		registered.set(List.of(instance("fast"), instance("slow"), instance("new")));
+		Thread.sleep(100);
+		received.clear();
+
+		send(60, 20);
+
+		// con EWMA inicial cero la nueva ganaria cada pareja en la que sale: ~2/3 del trafico
+		assertThat(received.getOrDefault("new", new AtomicInteger()).get()).isLessThan(60 / 3);
+		assertThat(received.get("fast").get()).isGreaterThan(60 / 2);
+	}
+
+	@Test
+	void statsOfRemovedInstancesAreDropped() throws InterruptedException {
+		send(10, 1);
+		registered.set(List.of(instance("fast")));
+		Thread.sleep(100);
+
+		send(1, 1);
+
+		assertThat(statKeys()).containsExactly("fast:80");
+	}
+
+	@SuppressWarnings("unchecked")
+	private Iterable<String> statKeys() {
+		return ((Map<String, ?>) ReflectionTestUtils.getField(balancer, "stats")).keySet();
+	}
+
+	private void send(int requests, int concurrency) {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://transaction-service/api/v1/transactions")).build();
+		Flux.range(0, requests)
+				.flatMap(i -> balancer.filter(request, exchange), concurrency)
+				.blockLast(Duration.ofSeconds(30));
+	}
+
+	private static ServiceInstance instance(String host) {
+		return new DefaultServiceInstance(host, "transaction-service", host, 80, false);
+	}
+
+	private final class FakeDiscovery implements ReactiveDiscoveryClient {
+
+		@Override
+		public String description() {
+			return "fake";
+		}
+
+		@Override
+		public Flux<ServiceInstance> getInstances(String serviceId) {
+			return Flux.defer(() -> Flux.fromIterable(registered.get()));
+		}
+
+		@Override
+		public Flux<String> getServices() {
+			return Flux.just("transaction-service");
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.Scenario;
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.StubSettings;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga de modelo abierto: lanza peticiones a una tasa fija sin esperar a las anteriores,
+ * de modo que un servicio lento acumula cola en vez de frenar al generador.
+ */
+final class ArrivalRateDriver implements AutoCloseable {
+
+	private static final int MAX_IN_FLIGHT = 10_000;
+	private static final double JIT_WARMUP_RATE = 2;
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+	private static final Duration DRAIN_TIMEOUT = REQUEST_TIMEOUT.plusSeconds(5);
+
+	private final LoopResources loops = LoopResources.create("loadtest", 1, true);
+	private final ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+			.maxConnections(MAX_IN_FLIGHT)
+			.pendingAcquireMaxCount(-1)
+			.build();
+	private final Scheduler ticker = Schedulers.newSingle("loadtest-ticker");
+	private final WebClient client;
+	private final int customers;
+
+	ArrivalRateDriver(String baseUrl, int customers) {
+		this.client = WebClient.builder()
+				.baseUrl(baseUrl)
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections).runOn(loops)))
+				.build();
+		this.customers = customers;
+	}
+
+	/**
+	 * Calentamiento a tasa baja de un JVM recien arrancado: las primeras peticiones son lentas y a la
+	 * tasa del escenario abririan los circuit breakers antes de medir nada.
+	 */
+	void warmUp(Scenario scenario, Duration duration) {
+		drive(scenario.path(), Math.min(scenario.rate(), JIT_WARMUP_RATE), duration, new Recording());
+	}
+
+	ScenarioResult run(Scenario scenario, double rate, Duration warmup, Duration duration, Map<String, StubSettings> stubs) {
+		drive(scenario.path(), rate, warmup, new Recording());
+
+		Recording recording = new Recording();
+		AllocationSnapshot allocationBefore = AllocationSnapshot.take();
+		GcSnapshot gcBefore = GcSnapshot.take();
+		long sent = drive(scenario.path(), rate, duration, recording);
+		AllocationSnapshot allocation = AllocationSnapshot.take().minus(allocationBefore);
+		GcSnapshot gc = GcSnapshot.take().minus(gcBefore);
+
+		Histogram latency = recording.latencyMicros;
+		long completed = latency.getTotalCount();
+		long ok = recording.statuses.getOrDefault(200, new LongAdder()).sum();
+		long rejected = sent - recording.count(scenario.acceptedStatuses());
+		double seconds = duration.toNanos() / 1e9;
+		return new ScenarioResult(scenario.name(), scenario.path(), rate, (int) duration.toSeconds(),
+				sent, completed, completed / seconds, ok / seconds,
+				recording.statusCounts(), recording.transportErrors.sum(), sent == 0 ? 0 : (double) rejected / sent,
+				new ScenarioResult.Latency(millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+						millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+						millis(latency.getMaxValue()), latency.getMean() / 1000.0),
+				new ScenarioResult.Allocation(allocation.serviceBytes, completed == 0 ? 0 : allocation.serviceBytes / completed,
+						allocation.totalBytes),
+				new ScenarioResult.Gc(gc.collections, gc.pauseMillis),
+				new TreeMap<>(stubs));
+	}
+
+	/**
+	 * Envia rate peticiones por segundo durante duration y espera a que terminen; devuelve cuantas envio.
+	 */
+	private long drive(String path, double rate, Duration duration, Recording recording) {
+		long periodNanos = (long) (1_000_000_000L / rate);
+		long total = Math.max(1, (long) (rate * duration.toNanos() / 1e9));
+		long start = System.nanoTime();
+		Flux.interval(Duration.ZERO, Duration.ofNanos(periodNanos), ticker)
+				.take(total)
+				.flatMap(tick -> send(expand(path), start + tick * periodNanos, recording), MAX_IN_FLIGHT)
+				.blockLast(duration.plus(DRAIN_TIMEOUT));
+		return total;
+	}
+
+	private Mono<Void> send(String uri, long intendedStart, Recording recording) {
+		return client.get()
+				.uri(uri)
+				.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+				.timeout(REQUEST_TIMEOUT)
+				.doOnNext(status -> recording.record(status, (System.nanoTime() - intendedStart) / 1000))
+				.doOnError(ex -> recording.transportErrors.increment())
+				.onErrorResume(ex -> Mono.empty())
+				.then();
+	}
+
+	private String expand(String path) {
+		LocalDate today = LocalDate.now();
+		return path.replace("{customerId}", "c" + ThreadLocalRandom.current().nextInt(customers))
+				.replace("{monthStart}", today.withDayOfMonth(1).toString())
+				.replace("{today}", today.toString());
+	}
+
+	@Override
+	public void close() {
+		ticker.dispose();
+		connections.dispose();
+		loops.dispose();
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	private static final class Recording {
+		private final Histogram latencyMicros = new ConcurrentHistogram(3);
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final LongAdder transportErrors = new LongAdder();
+
+		void record(int status, long micros) {
+			latencyMicros.recordValue(Math.max(0, micros));
+			statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+		}
+
+		long count(Iterable<Integer> accepted) {
+			long count = 0;
+			for (Integer status : accepted) {
+				LongAdder adder = statuses.get(status);
+				count += adder != null ? adder.sum() : 0;
+			}
+			return count;
+		}
+
+		Map<Integer, Long> statusCounts() {
+			Map<Integer, Long> counts = new TreeMap<>();
+			statuses.forEach((status, adder) -> counts.put(status, adder.sum()));
+			return counts;
+		}
+	}
+
+	/**
+	 * Bytes asignados por hilo (HotSpot). Los hilos que terminan durante la medicion no se cuentan.
+	 */
+	private record AllocationSnapshot(Map<Long, Long> perThread, long serviceBytes, long totalBytes) {
+
+		static AllocationSnapshot take() {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			Map<Long, Long> perThread = new HashMap<>();
+			long total = 0;
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				long bytes = threads.getThreadAllocatedBytes(thread.getId());
+				if (bytes <= 0) {
+					continue;
+				}
+				total += bytes;
+				if (!isHarness(thread.getName())) {
+					perThread.put(thread.getId(), bytes);
+				}
+			}
+			return new AllocationSnapshot(perThread, 0, total);
+		}
+
+		AllocationSnapshot minus(AllocationSnapshot before) {
+			long service = 0;
+			for (Map.Entry<Long, Long> thread : perThread.entrySet()) {
+				service += thread.getValue() - before.perThread.getOrDefault(thread.getKey(), 0L);
+			}
+			return new AllocationSnapshot(Map.of(), service, totalBytes - before.totalBytes);
+		}
+
+		private static boolean isHarness(String threadName) {
+			return threadName.startsWith("stub") || threadName.startsWith("loadtest");
+		}
+	}
+
+	private record GcSnapshot(long collections, long pauseMillis) {
+
+		static GcSnapshot take() {
+			long collections = 0;
+			long pauseMillis = 0;
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				collections += Math.max(0, gc.getCollectionCount());
+				pauseMillis += Math.max(0, gc.getCollectionTime());
+			}
+			return new GcSnapshot(collections, pauseMillis);
+		}
+
+		GcSnapshot minus(GcSnapshot before) {
+			return new GcSnapshot(collections - before.collections, pauseMillis - before.pauseMillis);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linea base versionada (load-test/baseline.json) con la que se compara cada escenario. Las latencias
+ * dependen de la maquina, asi que su tolerancia es amplia; la asignacion por peticion y la proporcion de
+ * respuestas 200 son estables y detectan la mayoria de regresiones.
+ */
+record LoadBaseline(Tolerance tolerance, Map<String, Expected> scenarios) {
+
+	private static final String RESOURCE = "/load-test/baseline.json";
+	static final Path SOURCE = Path.of("src/test/resources/load-test/baseline.json");
+
+	/**
+	 * latency y allocation son relativas (0.5 = hasta un 50% peor); latencyMarginMs se suma a la latencia
+	 * permitida para que escenarios de pocos ms no fallen por ruido; goodput es absoluta sobre la proporcion.
+	 */
+	record Tolerance(double latency, double latencyMarginMs, double goodput, double allocation) {
+
+		double latencyLimit(double baseline) {
+			return baseline * (1 + latency) + latencyMarginMs;
+		}
+	}
+
+	/**
+	 * Valores de referencia a la tasa indicada; goodputRatio es goodput / tasa objetivo. tolerance, si
+	 * esta, sustituye a la general (p. ej. en sobrecarga el goodput depende de como se adapta el limite).
+	 */
+	record Expected(double rate, double p50, double p99, double goodputRatio, long bytesPerRequest,
+			Tolerance tolerance) {
+	}
+
+	static LoadBaseline load() throws IOException {
+		try (InputStream in = LoadBaseline.class.getResourceAsStream(RESOURCE)) {
+			return new ObjectMapper().readValue(in, LoadBaseline.class);
+		}
+	}
+
+	/**
+	 * Regresiones de result frente a la linea base. Un escenario sin referencia o ejecutado a otra tasa
+	 * (-Dloadtest.rate-factor) no se compara.
+	 */
+	List<String> regressions(ScenarioResult result) {
+		Expected expected = scenarios.get(result.scenario());
+		List<String> regressions = new ArrayList<>();
+		if (expected == null || Math.abs(expected.rate() - result.targetRate()) > 1e-6) {
+			return regressions;
+		}
+		Tolerance allowed = expected.tolerance() != null ? expected.tolerance() : tolerance;
+		check(regressions, result.scenario(), "p50 ms", result.latencyMs().p50(), allowed.latencyLimit(expected.p50()));
+		check(regressions, result.scenario(), "p99 ms", result.latencyMs().p99(), allowed.latencyLimit(expected.p99()));
+		check(regressions, result.scenario(), "bytes/request", result.allocation().serviceBytesPerRequest(),
+				expected.bytesPerRequest() * (1 + allowed.allocation()));
+		double goodputRatio = result.goodput() / result.targetRate();
+		if (goodputRatio < expected.goodputRatio() - allowed.goodput()) {
+			regressions.add(String.format("%s: goodput ratio %.3f below baseline %.3f - %.3f",
+					result.scenario(), goodputRatio, expected.goodputRatio(), allowed.goodput()));
+		}
+		return regressions;
+	}
+
+	/**
+	 * Copia de esta linea base con los valores de results, conservando las tolerancias.
+	 */
+	LoadBaseline updatedWith(List<ScenarioResult> results) {
+		Map<String, Expected> updated = new LinkedHashMap<>(scenarios);
+		results.forEach(result -> {
+			Expected previous = scenarios.get(result.scenario());
+			updated.put(result.scenario(), new Expected(result.targetRate(),
+					result.latencyMs().p50(), result.latencyMs().p99(),
+					Math.round(result.goodput() / result.targetRate() * 1000) / 1000.0,
+					result.allocation().serviceBytesPerRequest(), previous != null ? previous.tolerance() : null));
+		});
+		return new LoadBaseline(tolerance, updated);
+	}
+
+	void write(Path path) throws IOException {
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+				.writeValue(path.toFile(), this);
+	}
+
+	private static void check(List<String> regressions, String scenario, String metric, double actual, double limit) {
+		if (actual > limit) {
+			regressions.add(String.format("%s: %s %.1f above baseline limit %.1f", scenario, metric, actual, limit));
+		}
+	}
+}
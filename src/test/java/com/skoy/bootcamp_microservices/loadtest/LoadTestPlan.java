@@ -0,0 +1,118 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Plan de carga leido de load-test/scenarios.json: comportamiento por defecto de cada servicio stub,
+ * escenarios a ejecutar contra ReportController y el subconjunto corto que corre en cada build.
+ */
+record LoadTestPlan(int warmupSeconds, int durationSeconds, int customers,
+		Map<String, StubSettings> stubs, List<Scenario> scenarios, Smoke smoke) {
+
+	private static final String RESOURCE = "/load-test/scenarios.json";
+
+	/**
+	 * Carga el plan aplicando -Dloadtest.scenarios (nombres separados por coma),
+	 * -Dloadtest.rate-factor, -Dloadtest.warmup-seconds y -Dloadtest.duration-seconds.
+	 */
+	static LoadTestPlan load() throws IOException {
+		LoadTestPlan plan;
+		try (InputStream in = LoadTestPlan.class.getResourceAsStream(RESOURCE)) {
+			plan = new ObjectMapper().readValue(in, LoadTestPlan.class);
+		}
+		String only = System.getProperty("loadtest.scenarios");
+		double rateFactor = Double.parseDouble(System.getProperty("loadtest.rate-factor", "1"));
+		List<Scenario> scenarios = plan.scenarios.stream()
+				.filter(scenario -> only == null || Arrays.asList(only.split(",")).contains(scenario.name()))
+				.map(scenario -> new Scenario(scenario.name(), scenario.path(), scenario.rate() * rateFactor, scenario.stubs(),
+						scenario.allowedStatuses(), scenario.maxErrorRatio()))
+				.toList();
+		return new LoadTestPlan(Integer.getInteger("loadtest.warmup-seconds", plan.warmupSeconds),
+				Integer.getInteger("loadtest.duration-seconds", plan.durationSeconds),
+				plan.customers, plan.stubs, scenarios, plan.smoke);
+	}
+
+	/**
+	 * Plan del build por defecto: solo los escenarios de smoke, con sus tiempos.
+	 */
+	LoadTestPlan smokePlan() {
+		List<Scenario> selected = scenarios.stream().filter(scenario -> smoke.scenarios().contains(scenario.name())).toList();
+		return new LoadTestPlan(smoke.warmupSeconds(), smoke.durationSeconds(), customers, stubs, selected, smoke);
+	}
+
+	/**
+	 * Escenarios y tiempos de la ejecucion corta que acompana a mvn test.
+	 */
+	record Smoke(List<String> scenarios, int warmupSeconds, int durationSeconds) {
+	}
+
+	/**
+	 * Endpoint a tasa de llegada fija (peticiones/s). path admite {customerId}, {monthStart} y {today};
+	 * stubs sobrescribe solo los campos indicados durante el escenario. El presupuesto de errores por
+	 * defecto (5%) detecta endpoints rotos; las regresiones de rendimiento se siguen con los JSON.
+	 */
+	record Scenario(String name, String path, double rate, Map<String, StubSettings> stubs,
+			List<Integer> allowedStatuses, Double maxErrorRatio) {
+
+		List<Integer> acceptedStatuses() {
+			return allowedStatuses != null ? allowedStatuses : List.of(200);
+		}
+
+		double errorBudget() {
+			return maxErrorRatio != null ? maxErrorRatio : 0.05;
+		}
+	}
+
+	/**
+	 * Latencia log-normal definida por mediana y p99, fraccion de respuestas 500 y numero de
+	 * elementos de las respuestas de lista.
+	 */
+	record StubSettings(Integer medianMs, Integer p99Ms, Double errorRate, Integer items) {
+
+		private static final double Z_99 = 2.326;
+
+		StubSettings overriddenBy(StubSettings override) {
+			if (override == null) {
+				return this;
+			}
+			return new StubSettings(
+					override.medianMs != null ? override.medianMs : medianMs,
+					override.p99Ms != null ? override.p99Ms : p99Ms,
+					override.errorRate != null ? override.errorRate : errorRate,
+					override.items != null ? override.items : items);
+		}
+
+		Duration sampleLatency(Random random) {
+			if (medianMs == null || medianMs <= 0) {
+				return Duration.ZERO;
+			}
+			double sigma = p99Ms != null && p99Ms > medianMs ? Math.log((double) p99Ms / medianMs) / Z_99 : 0;
+			return Duration.ofNanos((long) (medianMs * 1_000_000 * Math.exp(sigma * random.nextGaussian())));
+		}
+
+		boolean fails(Random random) {
+			return errorRate != null && random.nextDouble() < errorRate;
+		}
+
+		int itemCount() {
+			return items != null ? items : 1;
+		}
+	}
+
+	Map<String, StubSettings> stubsFor(Scenario scenario) {
+		Map<String, StubSettings> effective = new HashMap<>(stubs);
+		if (scenario.stubs() != null) {
+			scenario.stubs().forEach((service, override) -> effective.merge(service, override, StubSettings::overriddenBy));
+		}
+		return effective;
+	}
+}
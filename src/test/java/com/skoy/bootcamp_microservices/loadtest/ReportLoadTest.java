@@ -0,0 +1,120 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.Scenario;
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.StubSettings;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga a tasa fija contra ReportController con los servicios externos sustituidos por stubs locales
+ * (load-test/scenarios.json). Cada escenario escribe su JSON y summary.json en target/load-test y falla
+ * si la proporcion de respuestas no aceptadas supera el presupuesto del escenario o si empeora frente a
+ * load-test/baseline.json mas su tolerancia. En cada build corre la version corta (smoke); el plan
+ * completo (~70 s) solo con -Ploadtest, donde -Dloadtest.update-baseline=true reescribe la linea base.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "reports.response-cache.enabled=false")
+class ReportLoadTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReportLoadTest.class);
+	private static final Path OUTPUT = Path.of(System.getProperty("loadtest.output", "target/load-test"));
+
+	private static LoadTestPlan plan;
+	private static StubServices stubs;
+
+	private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void downstreamServices(DynamicPropertyRegistry registry) throws IOException {
+		plan = LoadTestPlan.load();
+		stubs = StubServices.start(plan.stubs());
+		stubs.baseUrls().forEach((service, url) -> registry.add("services." + service, () -> url));
+	}
+
+	@AfterAll
+	static void stopStubs() {
+		if (stubs != null) {
+			stubs.close();
+		}
+	}
+
+	@Test
+	void smokeScenarios() throws IOException {
+		SoftAssertions softly = new SoftAssertions();
+		run(plan.smokePlan(), OUTPUT.resolve("smoke"), softly);
+		softly.assertAll();
+	}
+
+	@Test
+	@Tag("load")
+	void reportEndpointsAtFixedArrivalRate() throws IOException {
+		SoftAssertions softly = new SoftAssertions();
+		List<ScenarioResult> results = run(plan, OUTPUT, softly);
+		if (Boolean.getBoolean("loadtest.update-baseline")) {
+			LoadBaseline.load().updatedWith(results).write(LoadBaseline.SOURCE);
+			logger.info("Baseline written to {}", LoadBaseline.SOURCE);
+			return;
+		}
+		softly.assertAll();
+	}
+
+	private List<ScenarioResult> run(LoadTestPlan selected, Path output, SoftAssertions softly) throws IOException {
+		Files.createDirectories(output);
+		List<ScenarioResult> results = new ArrayList<>();
+		LoadBaseline baseline = LoadBaseline.load();
+
+		try (ArrivalRateDriver driver = new ArrivalRateDriver("http://localhost:" + port + "/api/v1/reports", selected.customers())) {
+			selected.scenarios().forEach(scenario -> driver.warmUp(scenario, Duration.ofSeconds(selected.warmupSeconds())));
+			for (Scenario scenario : selected.scenarios()) {
+				Map<String, StubSettings> settings = selected.stubsFor(scenario);
+				stubs.configure(settings);
+				ScenarioResult result = driver.run(scenario, scenario.rate(),
+						Duration.ofSeconds(selected.warmupSeconds()), Duration.ofSeconds(selected.durationSeconds()), settings);
+				stubs.configure(selected.stubs());
+
+				results.add(result);
+				mapper.writeValue(output.resolve(scenario.name() + ".json").toFile(), result);
+				logger.info("{}: {} req/s ({} ok/s), p50={}ms p99={}ms p999={}ms, statuses={}, {} B/req",
+						scenario.name(), round(result.throughput()), round(result.goodput()), result.latencyMs().p50(),
+						result.latencyMs().p99(), result.latencyMs().p999(), result.statuses(),
+						result.allocation().serviceBytesPerRequest());
+
+				softly.assertThat(result.errorRatio())
+						.as("%s: fraction of responses outside %s", scenario.name(), scenario.acceptedStatuses())
+						.isLessThanOrEqualTo(scenario.errorBudget());
+				softly.assertThat(result.goodput()).as("%s: goodput", scenario.name()).isPositive();
+				softly.assertThat(baseline.regressions(result)).as("%s: regressions against the baseline", scenario.name())
+						.isEmpty();
+			}
+		}
+		mapper.writeValue(output.resolve("summary.json").toFile(), results);
+		return results;
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 10) / 10.0;
+	}
+}
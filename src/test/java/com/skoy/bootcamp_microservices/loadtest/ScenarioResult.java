@@ -0,0 +1,28 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.StubSettings;
+
+import java.util.Map;
+
+/**
+ * Resultado de un escenario tal como se escribe en target/load-test. throughput cuenta todas las
+ * respuestas y goodput solo las 200; las latencias se miden desde el instante en que la peticion
+ * debia salir, asi que incluyen la espera si el servicio no sigue el ritmo.
+ */
+record ScenarioResult(String scenario, String path, double targetRate, int durationSeconds,
+		long sent, long completed, double throughput, double goodput,
+		Map<Integer, Long> statuses, long transportErrors, double errorRatio,
+		Latency latencyMs, Allocation allocation, Gc gc, Map<String, StubSettings> stubs) {
+
+	record Latency(double p50, double p90, double p99, double p999, double max, double mean) {
+	}
+
+	/**
+	 * serviceBytes excluye los hilos del generador de carga y de los stubs.
+	 */
+	record Allocation(long serviceBytes, long serviceBytesPerRequest, long totalBytes) {
+	}
+
+	record Gc(long collections, long pauseMillis) {
+	}
+}
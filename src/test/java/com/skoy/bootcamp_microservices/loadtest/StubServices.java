@@ -0,0 +1,138 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.loadtest.LoadTestPlan.StubSettings;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Servidores HTTP locales que sustituyen a customer, bankaccount, credit, transaction y card.
+ * Cada uno responde cualquier ruta con su payload sintetico (JSON, o NDJSON si se pide) tras una
+ * latencia aleatoria; el comportamiento se puede cambiar entre escenarios con {@link #configure}.
+ * Usan sus propios hilos (stub-*) para poder separar su asignacion de memoria de la del servicio.
+ */
+final class StubServices implements AutoCloseable {
+
+	private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+	private static final MediaType NDJSON = MediaType.APPLICATION_NDJSON;
+
+	private final LoopResources loops = LoopResources.create("stub", 1, true);
+	private final Map<String, Stub> stubs = new LinkedHashMap<>();
+
+	private StubServices() {
+	}
+
+	static StubServices start(Map<String, StubSettings> settings) {
+		StubServices services = new StubServices();
+		services.add("customer", items -> SyntheticData.customer(), settings);
+		services.add("bankaccount", SyntheticData::bankAccounts, settings);
+		services.add("credit", SyntheticData::credits, settings);
+		services.add("transaction", SyntheticData::transactions, settings);
+		services.add("card", SyntheticData::cards, settings);
+		return services;
+	}
+
+	/**
+	 * URL base (con /api/v1) de cada servicio, con las claves de services.* en application.yml.
+	 */
+	Map<String, String> baseUrls() {
+		Map<String, String> urls = new LinkedHashMap<>();
+		stubs.forEach((name, stub) -> urls.put(name, "http://localhost:" + stub.server.port() + "/api/v1"));
+		return urls;
+	}
+
+	void configure(Map<String, StubSettings> settings) {
+		settings.forEach((name, value) -> {
+			Stub stub = stubs.get(name);
+			if (stub != null) {
+				stub.configure(value);
+			}
+		});
+	}
+
+	@Override
+	public void close() {
+		stubs.values().forEach(stub -> stub.server.disposeNow());
+		loops.dispose();
+	}
+
+	private void add(String name, IntFunction<Object> generator, Map<String, StubSettings> settings) {
+		Stub stub = new Stub(generator);
+		stub.configure(settings.getOrDefault(name, new StubSettings(0, 0, 0.0, 1)));
+		stub.server = HttpServer.create()
+				.host("localhost")
+				.port(0)
+				.runOn(loops)
+				.handle(stub::handle)
+				.bindNow();
+		stubs.put(name, stub);
+	}
+
+	private static final class Stub {
+
+		private final IntFunction<Object> generator;
+		private volatile Payload payload;
+		private DisposableServer server;
+
+		Stub(IntFunction<Object> generator) {
+			this.generator = generator;
+		}
+
+		void configure(StubSettings settings) {
+			Object body = generator.apply(settings.itemCount());
+			payload = new Payload(settings, json(body), body instanceof List<?> list ? ndjson(list) : json(body));
+		}
+
+		Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+			Payload current = payload;
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Mono<Void> delay = Mono.delay(current.settings.sampleLatency(random)).then();
+			if (current.settings.fails(random)) {
+				return delay.then(Mono.defer(() -> response.status(500).send()));
+			}
+			String accept = request.requestHeaders().get(HttpHeaders.ACCEPT, "");
+			boolean ndjson = accept.contains(NDJSON.toString());
+			byte[] body = ndjson ? current.ndjson : current.json;
+			return delay.then(Mono.defer(() -> response
+					.header(HttpHeaders.CONTENT_TYPE, ndjson ? NDJSON.toString() : MediaType.APPLICATION_JSON_VALUE)
+					.sendByteArray(Mono.just(body))
+					.then()));
+		}
+	}
+
+	private record Payload(StubSettings settings, byte[] json, byte[] ndjson) {
+	}
+
+	private static byte[] json(Object body) {
+		try {
+			return MAPPER.writeValueAsBytes(body);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static byte[] ndjson(List<?> items) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (Object item : items) {
+			out.writeBytes(json(item));
+			out.write('\n');
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,91 @@
+package com.skoy.bootcamp_microservices.loadtest;
+
+import com.skoy.bootcamp_microservices.dto.BankAccountDTO;
+import com.skoy.bootcamp_microservices.dto.CreditDTO;
+import com.skoy.bootcamp_microservices.dto.CustomerDTO;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.CreditTypeEnum;
+import com.skoy.bootcamp_microservices.enums.CurrencyEnum;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionStatusEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionTypeEnum;
+import com.skoy.bootcamp_microservices.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Datos sinteticos deterministas (semilla fija) con la forma de las respuestas de los servicios reales.
+ * Las transacciones caen en el mes en curso, que es el rango de los reportes mensuales.
+ */
+final class SyntheticData {
+
+	private static final int ACCOUNTS = 20;
+
+	private SyntheticData() {
+	}
+
+	static CustomerDTO customer() {
+		return new CustomerDTO("c1", "PERSONAL", "Ana", "Quispe", "DNI", "45871236", "ana@skoy.pe", "987654321");
+	}
+
+	static List<BankAccountDTO> bankAccounts(int items) {
+		Random random = new Random(1);
+		List<BankAccountDTO> accounts = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			accounts.add(new BankAccountDTO("ba" + i, "c1", i % 2 == 0 ? "SAVINGS" : "CHECKING", amount(random, 50_000)));
+		}
+		return accounts;
+	}
+
+	static List<CreditDTO> credits(int items) {
+		Random random = new Random(2);
+		List<CreditDTO> credits = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			BigDecimal limit = amount(random, 20_000);
+			credits.add(new CreditDTO("cr" + i, "c1", i % 2 == 0 ? CreditTypeEnum.PERSONAL : CreditTypeEnum.EMPRESARIAL,
+					limit, limit.divide(BigDecimal.valueOf(2)), CurrencyEnum.PEN));
+		}
+		return credits;
+	}
+
+	static List<TransactionDTO> transactions(int items) {
+		Random random = new Random(3);
+		LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+		int days = LocalDate.now().getDayOfMonth();
+		TransactionTypeEnum[] types = TransactionTypeEnum.values();
+		List<TransactionDTO> transactions = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			LocalDateTime createdAt = monthStart.plusDays(random.nextInt(days)).atTime(random.nextInt(24), random.nextInt(60));
+			boolean credit = random.nextInt(4) == 0;
+			transactions.add(new TransactionDTO("t" + i, "c1",
+					credit ? ProductTypeEnum.CREDIT : ProductTypeEnum.BANK_ACCOUNT,
+					(credit ? "cr" : "ba") + random.nextInt(ACCOUNTS),
+					types[random.nextInt(types.length)],
+					random.nextBoolean() ? Transaction.CardTypeEnum.DEBIT : Transaction.CardTypeEnum.CREDIT,
+					"card" + random.nextInt(ACCOUNTS),
+					amount(random, 2_000),
+					TransactionStatusEnum.APPROVED,
+					createdAt,
+					random.nextInt(5) == 0 ? amount(random, 20) : BigDecimal.ZERO));
+		}
+		return transactions;
+	}
+
+	static List<Map<String, String>> cards(int items) {
+		List<Map<String, String>> cards = new ArrayList<>(items);
+		for (int i = 0; i < items; i++) {
+			cards.add(Map.of("id", "card" + i, "customerId", "c1", "cardType", i % 2 == 0 ? "DEBIT" : "CREDIT"));
+		}
+		return cards;
+	}
+
+	private static BigDecimal amount(Random random, int max) {
+		return BigDecimal.valueOf(random.nextInt(max * 100), 2);
+	}
+}
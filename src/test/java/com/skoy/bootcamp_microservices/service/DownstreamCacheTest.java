@@ -0,0 +1,77 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DownstreamCacheTest {
+
+	private static final String CUSTOMER = "customer";
+
+	private DownstreamCache cache;
+
+	@BeforeEach
+	void setUp() {
+		CacheProperties.Spec spec = new CacheProperties.Spec();
+		spec.setTtl(Duration.ofMillis(50));
+		spec.setStaleWhileRevalidate(true);
+		spec.setStaleTtl(Duration.ofMinutes(1));
+		CacheProperties properties = new CacheProperties();
+		properties.getServices().put(CUSTOMER, spec);
+		cache = new DownstreamCache(properties, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void loaderRunsWithTheCallerContext() {
+		String seen = cache.get(CUSTOMER, "c1", () -> Mono.deferContextual(context -> Mono.just(context.<String>get("trace"))))
+				.contextWrite(Context.of("trace", "parent-span"))
+				.block();
+
+		assertThat(seen).isEqualTo("parent-span");
+	}
+
+	@Test
+	void loadCompletingAfterInvalidationIsNotCached() {
+		Sinks.One<String> inFlight = Sinks.one();
+		AtomicInteger loads = new AtomicInteger();
+
+		Mono<String> first = cache.get(CUSTOMER, "c1", () -> {
+			loads.incrementAndGet();
+			return inFlight.asMono();
+		});
+		first.subscribe();
+		cache.invalidateCustomer("c1");
+		inFlight.tryEmitValue("stale");
+
+		String second = cache.get(CUSTOMER, "c1", () -> {
+			loads.incrementAndGet();
+			return Mono.just("fresh");
+		}).block();
+
+		assertThat(second).isEqualTo("fresh");
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void backgroundRevalidationDoesNotRestoreInvalidatedEntry() throws InterruptedException {
+		cache.get(CUSTOMER, "c1", () -> Mono.just("v1")).block();
+		Thread.sleep(100);
+
+		Sinks.One<String> refresh = Sinks.one();
+		// entrada vencida: se sirve v1 y se recarga en segundo plano
+		assertThat(cache.get(CUSTOMER, "c1", refresh::asMono).block()).isEqualTo("v1");
+		cache.invalidateCustomer("c1");
+		refresh.tryEmitValue("v1-refreshed");
+
+		assertThat(cache.get(CUSTOMER, "c1", () -> Mono.just("v2")).block()).isEqualTo("v2");
+	}
+}
@@ -0,0 +1,59 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.skoy.bootcamp_microservices.config.MongoConfig;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Servidor Mongo en memoria (protocolo de red real) con un ReactiveMongoTemplate configurado
+ * con las mismas conversiones que MongoConfig.
+ */
+final class InMemoryMongo implements AutoCloseable {
+
+	private final MongoServer server;
+	private final MongoClient client;
+	private final ReactiveMongoTemplate template;
+
+	InMemoryMongo(CommandListener... listeners) {
+		server = new MongoServer(new MemoryBackend());
+		InetSocketAddress address = server.bind();
+		MongoClientSettings.Builder settings = MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString("mongodb://localhost:" + address.getPort()));
+		for (CommandListener listener : listeners) {
+			settings.addCommandListener(listener);
+		}
+		client = MongoClients.create(settings.build());
+
+		MongoCustomConversions conversions = MongoConfig.mongoCustomConversions();
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "reports"), converter);
+	}
+
+	ReactiveMongoTemplate template() {
+		return template;
+	}
+
+	@Override
+	public void close() {
+		client.close();
+		server.shutdownNow();
+	}
+}
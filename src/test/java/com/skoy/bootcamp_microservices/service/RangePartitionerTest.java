@@ -0,0 +1,89 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.CacheProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangePartitionerTest {
+
+	private static final String KEY = DownstreamCache.key(RangePartitioner.ALL_CUSTOMERS, "commissions-by-product");
+	private static final LocalDate FIRST_OPEN_DAY = LocalDate.now().withDayOfMonth(1);
+	// dos meses cerrados completos: ventanas de 7 dias, todas cacheables
+	private static final DateRange CLOSED = DateRange.of(FIRST_OPEN_DAY.minusMonths(2), FIRST_OPEN_DAY.minusDays(1));
+
+	private final AtomicInteger windowCalls = new AtomicInteger();
+	private RangePartitioner partitioner;
+
+	@BeforeEach
+	void setUp() {
+		CacheProperties.Spec spec = new CacheProperties.Spec();
+		spec.setTtl(Duration.ofHours(1));
+		CacheProperties properties = new CacheProperties();
+		properties.getServices().put(RangePartitioner.CLOSED_WINDOWS, spec);
+		partitioner = new RangePartitioner(new DownstreamCache(properties, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(partitioner, "windowDays", 7);
+		ReflectionTestUtils.setField(partitioner, "minDays", 15);
+		ReflectionTestUtils.setField(partitioner, "parallelism", 4);
+		ReflectionTestUtils.setField(partitioner, "retryBackoff", Duration.ofMillis(10));
+	}
+
+	@Test
+	void windowsAreMergedPerKey() {
+		Map<String, BigDecimal> total = fetch(CLOSED);
+
+		int windows = CLOSED.split(7).size();
+		assertThat(total).containsOnlyKeys("ba1", "ba2");
+		assertThat(total.get("ba1")).isEqualByComparingTo(BigDecimal.valueOf(windows));
+		assertThat(total.get("ba2")).isEqualByComparingTo(BigDecimal.valueOf(2L * windows));
+	}
+
+	@Test
+	void onlyWindowsOfClosedMonthsAreCached() {
+		DateRange throughToday = DateRange.of(FIRST_OPEN_DAY.minusMonths(1), LocalDate.now());
+		int windows = throughToday.split(7).size();
+		long open = throughToday.split(7).stream().filter(window -> !window.getEndDate().isBefore(FIRST_OPEN_DAY)).count();
+
+		fetch(throughToday);
+		windowCalls.set(0);
+		fetch(throughToday);
+
+		assertThat(open).isPositive();
+		assertThat(windowCalls).hasValue((int) open);
+		assertThat(windows).isGreaterThan((int) open);
+	}
+
+	@Test
+	void changeInAClosedMonthInvalidatesSharedWindows() {
+		fetch(CLOSED);
+		partitioner.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, LocalDate.now()));
+		windowCalls.set(0);
+		fetch(CLOSED);
+		assertThat(windowCalls).hasValue(0);
+
+		partitioner.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, CLOSED.getStartDate()));
+		fetch(CLOSED);
+		assertThat(windowCalls).hasValue(CLOSED.split(7).size());
+	}
+
+	private Map<String, BigDecimal> fetch(DateRange range) {
+		return partitioner.fetch(KEY, range, window -> {
+			windowCalls.incrementAndGet();
+			return Mono.just(Map.of("ba1", BigDecimal.ONE, "ba2", BigDecimal.valueOf(2)));
+		}, KeyedSum::merge).block();
+	}
+}
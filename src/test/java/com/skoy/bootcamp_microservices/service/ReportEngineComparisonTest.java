@@ -0,0 +1,203 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.skoy.bootcamp_microservices.config.DownstreamClients;
+import com.skoy.bootcamp_microservices.config.WebClientProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionQueryModeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionStatusEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionTypeEnum;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.HdrHistogram.Histogram;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comisiones por producto de un mes con el motor MONGO ($match/$group en la base) frente al motor HTTP
+ * (consulta filtrada al servicio de transacciones y suma local) sobre el mismo libro sintetico.
+ * Mongo es un servidor en memoria que habla el protocolo de red real: los bytes son los de las respuestas
+ * que recibe el driver, la latencia no es representativa de un mongod y solo se registra en el log.
+ */
+class ReportEngineComparisonTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReportEngineComparisonTest.class);
+	private static final int LEDGER_SIZE = 30_000;
+	private static final int RUNS = 10;
+	private static final LocalDate LEDGER_START = LocalDate.of(2025, 1, 1);
+	private static final DateRange MONTH = DateRange.of(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+
+	private static final List<byte[]> ledgerJson = new ArrayList<>();
+	private static final List<TransactionDTO> ledger = new ArrayList<>();
+	private static final AtomicLong mongoBytes = new AtomicLong();
+	private static final AtomicLong httpBytes = new AtomicLong();
+
+	private static InMemoryMongo mongo;
+	private static DisposableServer transactionService;
+	private static MongoReportEngine mongoEngine;
+	private static TransactionQueryClient httpEngine;
+
+	@BeforeAll
+	static void setUp() throws IOException {
+		ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+		Random random = new Random(11);
+		List<Transaction> documents = new ArrayList<>();
+		for (int i = 0; i < LEDGER_SIZE; i++) {
+			LocalDateTime createdAt = LEDGER_START.plusDays(random.nextInt(365)).atTime(random.nextInt(24), random.nextInt(60));
+			BigDecimal amount = BigDecimal.valueOf(random.nextInt(200_000), 2);
+			BigDecimal commission = random.nextInt(5) == 0 ? BigDecimal.valueOf(1 + random.nextInt(2_000), 2) : BigDecimal.ZERO;
+			String customerId = "c" + random.nextInt(1_000);
+			String productTypeId = "ba" + random.nextInt(50);
+			TransactionDTO transaction = new TransactionDTO("t" + i, customerId, ProductTypeEnum.BANK_ACCOUNT, productTypeId,
+					TransactionTypeEnum.DEPOSIT, Transaction.CardTypeEnum.DEBIT, "card" + random.nextInt(50), amount,
+					TransactionStatusEnum.APPROVED, createdAt, commission);
+			ledger.add(transaction);
+			ledgerJson.add(mapper.writeValueAsBytes(transaction));
+			Transaction document = new Transaction();
+			document.setId(transaction.getId());
+			document.setCustomerId(customerId);
+			document.setProductType(Transaction.ProductTypeEnum.BANK_ACCOUNT);
+			document.setProductTypeId(productTypeId);
+			document.setTransactionType(Transaction.TransactionTypeEnum.DEPOSIT);
+			document.setCardType(Transaction.CardTypeEnum.DEBIT);
+			document.setAmount(amount);
+			document.setCreatedAt(createdAt);
+			document.setCommissionAmount(commission);
+			documents.add(document);
+		}
+
+		mongo = new InMemoryMongo(new ReplyBytesListener());
+		ReactiveMongoTemplate mongoTemplate = mongo.template();
+		Flux.fromIterable(documents).buffer(5_000)
+				.concatMap(batch -> mongoTemplate.insertAll(batch))
+				.blockLast();
+		mongoEngine = new MongoReportEngine(mongoTemplate);
+
+		transactionService = HttpServer.create().host("localhost").port(0)
+				.route(routes -> routes.get("/api/v1/transactions", (request, response) -> {
+					Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+					LocalDate from = LocalDate.parse(params.get("dateFrom").get(0));
+					LocalDate to = LocalDate.parse(params.get("dateTo").get(0));
+					Flux<byte[]> lines = Flux.range(0, LEDGER_SIZE)
+							.filter(i -> {
+								TransactionDTO transaction = ledger.get(i);
+								LocalDate day = transaction.getCreatedAt().toLocalDate();
+								return !day.isBefore(from) && !day.isAfter(to) && transaction.getCommissionAmount().signum() > 0;
+							})
+							.map(ledgerJson::get)
+							.buffer(256)
+							.map(ReportEngineComparisonTest::ndjson)
+							.doOnNext(chunk -> httpBytes.addAndGet(chunk.length));
+					return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE).sendByteArray(lines);
+				}))
+				.bindNow();
+		DownstreamClients clients = new DownstreamClients(
+				Map.of(DownstreamClients.TRANSACTION, WebClient.create("http://localhost:" + transactionService.port() + "/api/v1")),
+				List.of());
+		httpEngine = new TransactionQueryClient(clients,
+				new ResilientCalls(new WebClientProperties(), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(httpEngine, "queryMode", TransactionQueryModeEnum.FILTERED);
+		ReflectionTestUtils.setField(httpEngine, "pageSize", 5_000);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		transactionService.disposeNow();
+		mongo.close();
+	}
+
+	@Test
+	void mongoEngineTransfersTotalsInsteadOfTransactions() {
+		Supplier<Map<String, BigDecimal>> mongoReport = () -> mongoEngine.sumCommissionsByProduct(MONTH).block();
+		Supplier<Map<String, BigDecimal>> httpReport = () -> KeyedSum.sumByKey(
+				httpEngine.findByDateRange(MONTH.getStartDate(), MONTH.getEndDate(), true)
+						.filter(transaction -> MONTH.contains(transaction.getCreatedAt())),
+				TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount).block();
+
+		Run mongoRun = run(mongoReport, mongoBytes);
+		Run httpRun = run(httpReport, httpBytes);
+		logger.info("Commissions by product, {} tx ledger, {} runs. MONGO: {} B/run, p50 {} us, p99 {} us. HTTP: {} B/run, p50 {} us, p99 {} us",
+				LEDGER_SIZE, RUNS, mongoRun.bytesPerRun, mongoRun.latency.getValueAtPercentile(50), mongoRun.latency.getValueAtPercentile(99),
+				httpRun.bytesPerRun, httpRun.latency.getValueAtPercentile(50), httpRun.latency.getValueAtPercentile(99));
+
+		assertThat(mongoRun.result).isEqualTo(httpRun.result).hasSize(50);
+		// ~500 transacciones con comision en el mes frente a 50 totales
+		assertThat(mongoRun.bytesPerRun).isLessThan(httpRun.bytesPerRun / 10);
+	}
+
+	private static Run run(Supplier<Map<String, BigDecimal>> engine, AtomicLong bytes) {
+		Map<String, BigDecimal> result = engine.get();
+		for (int i = 0; i < 3; i++) {
+			engine.get();
+		}
+		bytes.set(0);
+		Histogram latency = new Histogram(3);
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			engine.get();
+			latency.recordValue((System.nanoTime() - start) / 1_000);
+		}
+		return new Run(result, bytes.get() / RUNS, latency);
+	}
+
+	private static byte[] ndjson(List<byte[]> batch) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		batch.forEach(line -> {
+			out.writeBytes(line);
+			out.write('\n');
+		});
+		return out.toByteArray();
+	}
+
+	private record Run(Map<String, BigDecimal> result, long bytesPerRun, Histogram latency) {
+	}
+
+	/** Tamaño BSON de cada respuesta del servidor (aggregate y getMore incluidos). */
+	private static final class ReplyBytesListener implements CommandListener {
+
+		@Override
+		public void commandSucceeded(CommandSucceededEvent event) {
+			BsonDocument response = event.getResponse();
+			if (response != null) {
+				mongoBytes.addAndGet(new RawBsonDocument(response, new BsonDocumentCodec()).getByteBuffer().remaining());
+			}
+		}
+	}
+}
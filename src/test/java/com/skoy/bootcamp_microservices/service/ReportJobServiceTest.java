@@ -0,0 +1,203 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.skoy.bootcamp_microservices.enums.ReportJobStatusEnum;
+import com.skoy.bootcamp_microservices.enums.ReportJobTypeEnum;
+import com.skoy.bootcamp_microservices.model.ReportJob;
+import com.skoy.bootcamp_microservices.utils.Progress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cola de jobs sobre Mongo en memoria: recuperacion de jobs de instancias detenidas, avance
+ * intermedio, resultados grandes en GridFS y aislamiento entre tenants.
+ */
+class ReportJobServiceTest {
+
+	private static final Map<String, String> PARAMS = Map.of("startDate", "2025-01-01", "endDate", "2025-03-31");
+
+	private final List<Integer> progressWrites = new CopyOnWriteArrayList<>();
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private InMemoryMongo mongo;
+	private ReactiveMongoTemplate template;
+	private IReportService reportService;
+
+	@BeforeEach
+	void setUp() {
+		mongo = new InMemoryMongo(new CommandListener() {
+			@Override
+			public void commandStarted(CommandStartedEvent event) {
+				if (!"update".equals(event.getCommandName()) || !event.getCommand().containsKey("updates")) {
+					return;
+				}
+				for (BsonValue update : event.getCommand().getArray("updates")) {
+					BsonDocument set = update.asDocument().getDocument("u").getDocument("$set", new BsonDocument());
+					if (set.containsKey("progress") && !set.containsKey("startedAt")) {
+						progressWrites.add(set.getInt32("progress").getValue());
+					}
+				}
+			}
+		});
+		template = mongo.template();
+		reportService = mock(IReportService.class);
+		when(reportService.getCommissionsByProduct(any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Mono.just(Map.of("ba1", new BigDecimal("12.50"))));
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void jobWithExpiredLeaseIsRecoveredAndRun() {
+		ReportJobService service = service(1_048_576);
+		ReportJob orphan = template.insert(job(ReportJobStatusEnum.RUNNING, LocalDateTime.now().minusMinutes(1), 1)).block();
+
+		assertThat(service.recoverOrphans().block()).isEqualTo(1);
+
+		ReportJob done = awaitFinished(service, orphan.getId());
+		assertThat(done.getStatus()).isEqualTo(ReportJobStatusEnum.DONE);
+		assertThat(done.getAttempts()).isEqualTo(2);
+		assertThat(done.getActiveHash()).isNull();
+		assertThat(done.getLeaseUntil()).isNull();
+		assertThat(service.readResult(done).block().get("ba1").decimalValue()).isEqualByComparingTo("12.50");
+	}
+
+	@Test
+	void jobWithLiveLeaseIsNotRecovered() {
+		ReportJobService service = service(1_048_576);
+		ReportJob active = template.insert(job(ReportJobStatusEnum.QUEUED, LocalDateTime.now().plusMinutes(1), 0)).block();
+
+		assertThat(service.recoverOrphans().block()).isZero();
+		assertThat(service.findById(active.getId()).block().getOwnerId()).isEqualTo("stopped-instance");
+	}
+
+	@Test
+	void jobThatExhaustedItsAttemptsFails() {
+		ReportJobService service = service(1_048_576);
+		ReportJob orphan = template.insert(job(ReportJobStatusEnum.RUNNING, null, 3)).block();
+
+		assertThat(service.recoverOrphans().block()).isEqualTo(1);
+
+		ReportJob failed = service.findById(orphan.getId()).block();
+		assertThat(failed.getStatus()).isEqualTo(ReportJobStatusEnum.FAILED);
+		assertThat(failed.getError()).startsWith("Abandoned");
+		assertThat(failed.getActiveHash()).isNull();
+	}
+
+	@Test
+	void progressIsWrittenAsUnitsComplete() {
+		when(reportService.getCommissionsByProduct(any(LocalDate.class), any(LocalDate.class)))
+				.thenReturn(Mono.deferContextual(context -> {
+					Progress.expect(context, 4);
+					return Flux.range(0, 4)
+							.delayElements(Duration.ofMillis(100))
+							.doOnNext(unit -> Progress.advance(context))
+							.then(Mono.just(Map.of("ba1", BigDecimal.ONE)));
+				}));
+		ReportJobService service = service(1_048_576);
+
+		ReportJob job = service.submit("t1", ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT, PARAMS).block();
+
+		assertThat(awaitFinished(service, job.getId()).getProgress()).isEqualTo(100);
+		assertThat(progressWrites).containsExactly(25, 50, 75, 99, 100);
+	}
+
+	@Test
+	void largeResultIsStoredInGridFs() {
+		Map<String, BigDecimal> large = new TreeMap<>();
+		for (int i = 0; i < 500; i++) {
+			large.put("ba" + i, BigDecimal.valueOf(i, 2));
+		}
+		when(reportService.getCommissionsByProduct(any(LocalDate.class), any(LocalDate.class))).thenReturn(Mono.just(large));
+		ReportJobService service = service(1_024);
+
+		ReportJob job = service.submit("t1", ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT, PARAMS).block();
+		ReportJob done = awaitFinished(service, job.getId());
+
+		assertThat(done.getStatus()).isEqualTo(ReportJobStatusEnum.DONE);
+		assertThat(done.getResult()).isNull();
+		assertThat(done.getResultFileId()).isNotNull();
+		JsonNode result = service.readResult(done).block();
+		assertThat(result.size()).isEqualTo(500);
+		assertThat(result.get("ba499").decimalValue()).isEqualByComparingTo("4.99");
+	}
+
+	@Test
+	void sameRequestIsSharedWithinATenantOnly() {
+		template.indexOps(ReportJob.class)
+				.ensureIndex(new Index().on("activeHash", Sort.Direction.ASC).unique().sparse())
+				.block();
+		when(reportService.getCommissionsByProduct(any(LocalDate.class), any(LocalDate.class))).thenReturn(Mono.never());
+		ReportJobService service = service(1_048_576);
+
+		ReportJob first = service.submit("t1", ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT, PARAMS).block();
+		ReportJob repeated = service.submit("t1", ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT, PARAMS).block();
+		ReportJob otherTenant = service.submit("t2", ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT, PARAMS).block();
+
+		assertThat(repeated.getId()).isEqualTo(first.getId());
+		assertThat(otherTenant.getId()).isNotEqualTo(first.getId());
+		assertThat(otherTenant.getTenantId()).isEqualTo("t2");
+		assertThat(service.findById("t1", first.getId()).block()).isNotNull();
+		assertThat(service.findById("t2", first.getId()).block()).isNull();
+	}
+
+	private ReportJobService service(int inlineResultMaxBytes) {
+		return new ReportJobService(template, new ReactiveGridFsTemplate(template.getMongoDatabaseFactory(), template.getConverter()),
+				reportService, objectMapper, new SimpleMeterRegistry(), 2, 10, Duration.ofMinutes(1), Duration.ofHours(1),
+				Duration.ofSeconds(30), 3, inlineResultMaxBytes);
+	}
+
+	private ReportJob job(ReportJobStatusEnum status, LocalDateTime leaseUntil, int attempts) {
+		ReportJob job = new ReportJob();
+		job.setTenantId("t1");
+		job.setType(ReportJobTypeEnum.COMMISSIONS_BY_PRODUCT);
+		job.setParams(new TreeMap<>(PARAMS));
+		job.setRequestHash("hash");
+		job.setActiveHash("hash");
+		job.setStatus(status);
+		job.setOwnerId("stopped-instance");
+		job.setLeaseUntil(leaseUntil);
+		job.setAttempts(attempts);
+		job.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+		job.setExpiresAt(LocalDateTime.now().plusHours(1));
+		return job;
+	}
+
+	private static ReportJob awaitFinished(ReportJobService service, String jobId) {
+		return Flux.interval(Duration.ofMillis(20))
+				.onBackpressureDrop()
+				.concatMap(tick -> service.findById(jobId))
+				.filter(job -> job.getStatus().isFinished())
+				.blockFirst(Duration.ofSeconds(10));
+	}
+}
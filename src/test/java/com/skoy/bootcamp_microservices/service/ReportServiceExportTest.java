@@ -0,0 +1,112 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.model.Transaction;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Export por keyset sobre un ReactiveMongoTemplate simulado: cuenta las paginas consultadas
+ * segun la demanda del consumidor.
+ */
+class ReportServiceExportTest {
+
+	private static final int BATCH_SIZE = 10;
+	private static final int TOTAL = 1_000;
+
+	private final AtomicInteger pageQueries = new AtomicInteger();
+	private ReportService service;
+
+	@BeforeEach
+	void setUp() {
+		ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+		// como el driver, la consulta sale con la primera demanda y no al suscribirse
+		when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenAnswer(invocation -> {
+			AtomicBoolean queried = new AtomicBoolean();
+			return Flux.defer(() -> Flux.fromIterable(page(invocation.getArgument(0))))
+					.doOnRequest(n -> {
+						if (queried.compareAndSet(false, true)) {
+							pageQueries.incrementAndGet();
+						}
+					});
+		});
+		service = new ReportService(null, mongoTemplate, null, null, null, null, null, null, null);
+	}
+
+	@Test
+	void firstElementQueriesOnlyTheFirstPage() {
+		StepVerifier.create(service.exportByCustomerId("c1", null, List.of(), BATCH_SIZE), 1)
+				.expectNextCount(1)
+				.thenCancel()
+				.verify();
+
+		assertThat(pageQueries).hasValue(1);
+	}
+
+	@Test
+	void nextPageIsQueriedOnlyAfterTheCurrentOneIsDrained() {
+		StepVerifier.create(service.exportByCustomerId("c1", null, List.of(), BATCH_SIZE), BATCH_SIZE)
+				.expectNextCount(BATCH_SIZE)
+				.then(() -> assertThat(pageQueries.get()).isLessThanOrEqualTo(2))
+				.thenRequest(BATCH_SIZE * 3L)
+				.expectNextCount(BATCH_SIZE * 3L)
+				.then(() -> assertThat(pageQueries.get()).isLessThanOrEqualTo(5))
+				.thenCancel()
+				.verify();
+	}
+
+	@Test
+	void fullExportReadsEveryPageOnce() {
+		StepVerifier.create(service.exportByCustomerId("c1", null, List.of(), BATCH_SIZE))
+				.expectNextCount(TOTAL)
+				.verifyComplete();
+
+		// la ultima consulta devuelve una pagina vacia
+		assertThat(pageQueries).hasValue(TOTAL / BATCH_SIZE + 1);
+	}
+
+	/** Pagina siguiente al cursor de la consulta: los ids son consecutivos, asi que basta con el id del cursor. */
+	private static List<Transaction> page(Query query) {
+		String afterId = afterId(query.getQueryObject());
+		int from = afterId == null ? 0 : Integer.parseInt(afterId.substring(1)) + 1;
+		List<Transaction> page = new ArrayList<>();
+		for (int i = from; i < Math.min(from + (int) query.getLimit(), TOTAL); i++) {
+			Transaction transaction = new Transaction();
+			transaction.setId(String.format("t%05d", i));
+			transaction.setCustomerId("c1");
+			transaction.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i / 2));
+			page.add(transaction);
+		}
+		return page;
+	}
+
+	private static String afterId(Object criteria) {
+		if (criteria instanceof Document document) {
+			if (document.get("id") instanceof Document id) {
+				return id.getString("$gt");
+			}
+			return document.values().stream().map(ReportServiceExportTest::afterId).filter(Objects::nonNull).findFirst().orElse(null);
+		}
+		if (criteria instanceof List<?> list) {
+			return list.stream().map(ReportServiceExportTest::afterId).filter(Objects::nonNull).findFirst().orElse(null);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,137 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.config.DownstreamClients;
+import com.skoy.bootcamp_microservices.config.WebClientProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ultimas transacciones de tarjeta contra un servicio de transacciones simulado que respeta (o ignora)
+ * sort, cardType y limit: se comprueba que pedidos y resultado coinciden con ordenar el historial.
+ */
+class ReportServiceLastTransactionsTest {
+
+	private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+	private static final List<TransactionDTO> HISTORY = history();
+
+	private final List<Map<String, List<String>>> requests = new CopyOnWriteArrayList<>();
+	private boolean honoursQuery;
+	private ReportService service;
+
+	@BeforeEach
+	void setUp() {
+		WebClient transactions = WebClient.builder()
+				.exchangeFunction(request -> {
+					Map<String, List<String>> query = new QueryStringDecoder(request.url()).parameters();
+					requests.add(query);
+					return Mono.just(ClientResponse.create(HttpStatus.OK)
+							.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+							.body(json(respond(query)))
+							.build());
+				})
+				.build();
+		service = new ReportService(null, null,
+				new DownstreamClients(Map.of(DownstreamClients.TRANSACTION, transactions), List.of()), null,
+				new ReportMetrics(new SimpleMeterRegistry()),
+				new ResilientCalls(new WebClientProperties(), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+						new SimpleMeterRegistry()),
+				null, null, null);
+	}
+
+	@Test
+	void withoutCardTypeEachTypeIsLimitedDownstream() {
+		honoursQuery = true;
+
+		Map<String, List<TransactionDTO>> last = service.getLastTransactions("c1", 10, null).block();
+
+		assertThat(requests).extracting(query -> query.get("cardType").get(0) + ":" + query.get("limit").get(0))
+				.containsExactlyInAnyOrder("DEBIT:10", "CREDIT:10");
+		assertThat(last).isEqualTo(expected(10, null));
+	}
+
+	@Test
+	void singleCardTypeIsOneLimitedQuery() {
+		honoursQuery = true;
+
+		Map<String, List<TransactionDTO>> last = service.getLastTransactions("c1", 5, Transaction.CardTypeEnum.CREDIT).block();
+
+		assertThat(requests).hasSize(1);
+		assertThat(last).isEqualTo(expected(5, Transaction.CardTypeEnum.CREDIT));
+	}
+
+	@Test
+	void serviceIgnoringTheQueryGivesTheSameResultWithoutDuplicates() {
+		honoursQuery = false;
+
+		assertThat(service.getLastTransactions("c1", 10, null).block()).isEqualTo(expected(10, null));
+	}
+
+	private List<TransactionDTO> respond(Map<String, List<String>> query) {
+		if (!honoursQuery) {
+			return HISTORY;
+		}
+		Transaction.CardTypeEnum cardType = Transaction.CardTypeEnum.valueOf(query.get("cardType").get(0));
+		return HISTORY.stream()
+				.filter(transaction -> transaction.getCardType() == cardType)
+				.sorted(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
+				.limit(Long.parseLong(query.get("limit").get(0)))
+				.toList();
+	}
+
+	private static Map<String, List<TransactionDTO>> expected(int n, Transaction.CardTypeEnum cardType) {
+		return HISTORY.stream()
+				.filter(transaction -> cardType == null ? transaction.getCardType() != null : transaction.getCardType() == cardType)
+				.sorted(Comparator.comparing(TransactionDTO::getCreatedAt).reversed())
+				.limit(n)
+				.collect(Collectors.groupingBy(transaction -> transaction.getCardType().name()));
+	}
+
+	/**
+	 * Historial desordenado con mas debitos que creditos y movimientos sin tarjeta.
+	 */
+	private static List<TransactionDTO> history() {
+		List<TransactionDTO> history = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+		for (int i = 0; i < 500; i++) {
+			Transaction.CardTypeEnum cardType = i % 3 == 0 ? null
+					: i % 7 == 0 ? Transaction.CardTypeEnum.CREDIT : Transaction.CardTypeEnum.DEBIT;
+			history.add(new TransactionDTO("t" + i, "c1", null, "p1", null, cardType, null,
+					BigDecimal.ONE, null, start.plusHours((i * 37L) % 500), null));
+		}
+		return history;
+	}
+
+	private static String json(List<TransactionDTO> transactions) {
+		try {
+			return MAPPER.writeValueAsString(transactions);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.DownstreamFailurePredicate;
+import com.skoy.bootcamp_microservices.config.WebClientProperties;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ResilientCalls contra un servicio local que inyecta latencia y errores por ruta:
+ * /slow-once tarda en la primera peticion y responde rapido en las siguientes, /slow siempre tarda,
+ * /fast tarda 20 ms, /error responde 500 y /missing 404 sin espera, y /stream emite un flujo largo.
+ */
+class ResilientCallsTest {
+
+	private static final String SERVICE = "customer";
+	private static final Duration SLOW = Duration.ofMillis(800);
+
+	private static DisposableServer stub;
+	private static final AtomicInteger requests = new AtomicInteger();
+
+	private WebClient webClient;
+	private WebClientProperties.Settings settings;
+	private CircuitBreakerRegistry circuitBreakers;
+	private SimpleMeterRegistry meterRegistry;
+	private ResilientCalls calls;
+
+	@BeforeAll
+	static void startStub() {
+		stub = HttpServer.create()
+				.host("localhost")
+				.port(0)
+				.route(routes -> routes
+						.get("/slow-once", (request, response) -> {
+							Duration delay = requests.incrementAndGet() == 1 ? SLOW : Duration.ZERO;
+							return Mono.delay(delay).then(response.sendString(Mono.just("ok")).then());
+						})
+						.get("/slow", (request, response) -> {
+							requests.incrementAndGet();
+							return Mono.delay(SLOW).then(response.sendString(Mono.just("ok")).then());
+						})
+						.get("/fast", (request, response) ->
+								Mono.delay(Duration.ofMillis(20)).then(response.sendString(Mono.just("ok")).then()))
+						.get("/error", (request, response) -> {
+							requests.incrementAndGet();
+							return response.status(500).send();
+						})
+						.get("/missing", (request, response) -> {
+							requests.incrementAndGet();
+							return response.status(404).send();
+						})
+						.get("/stream", (request, response) -> {
+							requests.incrementAndGet();
+							return response.sendString(Flux.range(0, 5)
+									.delayElements(Duration.ofMillis(100))
+									.map(i -> i + "\n"));
+						}))
+				.bindNow();
+		// calienta cliente y conexiones para que los tiempos de las pruebas sean solo los inyectados
+		WebClient.create("http://localhost:" + stub.port()).get().uri("/slow-once")
+				.retrieve().bodyToMono(String.class).block(Duration.ofSeconds(10));
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.disposeNow();
+	}
+
+	@BeforeEach
+	void setUp() {
+		requests.set(0);
+		webClient = WebClient.create("http://localhost:" + stub.port());
+		settings = new WebClientProperties.Settings();
+		meterRegistry = new SimpleMeterRegistry();
+		settings.setCallTimeout(Duration.ofMillis(500));
+		WebClientProperties properties = new WebClientProperties();
+		properties.getServices().put(SERVICE, settings);
+		circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.slidingWindowSize(4)
+				.minimumNumberOfCalls(4)
+				.failureRateThreshold(50)
+				.waitDurationInOpenState(Duration.ofMinutes(1))
+				// como resilience4j.circuitbreaker.configs.default en application.yml
+				.recordException(new DownstreamFailurePredicate())
+				.ignoreExceptions(BulkheadFullException.class)
+				.build());
+		calls = new ResilientCalls(properties, circuitBreakers,
+				BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(2).maxWaitDuration(Duration.ZERO).build()),
+				meterRegistry);
+	}
+
+	@Test
+	void slowCallTimesOut() {
+		StepVerifier.create(calls.get(SERVICE, () -> get("/slow")))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void hedgeAnswersWhenPrimaryIsSlow() {
+		settings.setHedgeDelay(Duration.ofMillis(100));
+
+		StepVerifier.create(calls.get(SERVICE, () -> get("/slow-once")))
+				.expectNext("ok")
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	void hedgeDelayFollowsThePrimaryP95() {
+		// con el retraso configurado la cobertura saldria despues del timeout
+		settings.setHedgeDelay(Duration.ofSeconds(2));
+		for (int i = 0; i < 30; i++) {
+			calls.get(SERVICE, () -> get("/fast")).block(Duration.ofSeconds(5));
+		}
+		double p95 = meterRegistry.get(ResilientCalls.PRIMARY_LATENCY).timer()
+				.takeSnapshot().percentileValues()[0].value(TimeUnit.MILLISECONDS);
+		assertThat(p95).isBetween(20.0, 400.0);
+
+		StepVerifier.create(calls.get(SERVICE, () -> get("/slow-once")))
+				.expectNext("ok")
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	void fastErrorDoesNotStartHedge() throws InterruptedException {
+		settings.setHedgeDelay(Duration.ofMillis(300));
+
+		StepVerifier.create(calls.get(SERVICE, () -> get("/error")))
+				.expectError(WebClientResponseException.InternalServerError.class)
+				.verify(Duration.ofSeconds(5));
+		// margen de sobra para que una cobertura, si saliera, llegue al stub
+		Thread.sleep(500);
+		assertThat(requests).hasValue(1);
+	}
+
+	@Test
+	void repeatedErrorsOpenTheCircuit() {
+		for (int i = 0; i < 4; i++) {
+			StepVerifier.create(calls.get(SERVICE, () -> get("/error")))
+					.expectError(WebClientResponseException.class)
+					.verify(Duration.ofSeconds(5));
+		}
+
+		assertThat(circuitBreakers.circuitBreaker(SERVICE).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		StepVerifier.create(calls.get(SERVICE, () -> get("/error")))
+				.expectError(CallNotPermittedException.class)
+				.verify(Duration.ofSeconds(5));
+		assertThat(requests).hasValue(4);
+	}
+
+	@Test
+	void clientErrorsDoNotOpenTheCircuit() {
+		for (int i = 0; i < 8; i++) {
+			StepVerifier.create(calls.get(SERVICE, () -> get("/missing")))
+					.expectError(WebClientResponseException.NotFound.class)
+					.verify(Duration.ofSeconds(5));
+		}
+
+		assertThat(circuitBreakers.circuitBreaker(SERVICE).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(requests).hasValue(8);
+	}
+
+	@Test
+	void bulkheadRejectsCallsAboveItsLimit() {
+		Mono<String> slow = calls.get(SERVICE, () -> get("/slow"))
+				.onErrorResume(ex -> Mono.just(ex.getClass().getSimpleName()));
+		Mono<String> rejected = Mono.delay(Duration.ofMillis(100))
+				.then(calls.get(SERVICE, () -> get("/slow")))
+				.onErrorResume(ex -> Mono.just(ex.getClass().getSimpleName()));
+
+		StepVerifier.create(Flux.merge(slow, slow, rejected).collectList())
+				.assertNext(results -> assertThat(results)
+						.containsExactlyInAnyOrder("TimeoutException", "TimeoutException", "BulkheadFullException"))
+				.verifyComplete();
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	void longStreamIsNotSlowForTheTransactionBreaker() {
+		CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.slowCallDurationThreshold(Duration.ofMillis(200))
+				.build());
+		registry.addConfiguration("transaction", CircuitBreakerConfig.from(registry.getDefaultConfig())
+				.slowCallDurationThreshold(Duration.ofSeconds(30))
+				.build());
+		registry.circuitBreaker("transaction", "transaction");
+		ResilientCalls streaming = new ResilientCalls(new WebClientProperties(), registry, BulkheadRegistry.ofDefaults(),
+				new SimpleMeterRegistry());
+
+		StepVerifier.create(streaming.stream("transaction", () -> webClient.get().uri("/stream").retrieve().bodyToFlux(String.class)))
+				.expectNextCount(5)
+				.verifyComplete();
+		assertThat(registry.circuitBreaker("transaction").getMetrics().getNumberOfSlowCalls()).isZero();
+	}
+
+	private Mono<String> get(String path) {
+		return webClient.get().uri(path).retrieve().bodyToMono(String.class);
+	}
+}
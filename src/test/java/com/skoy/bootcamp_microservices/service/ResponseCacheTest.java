@@ -0,0 +1,90 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.config.ResponseCacheProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+	private static final byte[] BODY = "{}".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void transactionEndpointsExpireEarlyWithoutChangeStream() throws InterruptedException {
+		ResponseCache cache = cache(false);
+		cache.put("last", "last-10-transactions", "c1", MediaType.APPLICATION_JSON, BODY, cache.generation("c1"));
+		cache.put("summary", "customer-summary", "c1", MediaType.APPLICATION_JSON, BODY, cache.generation("c1"));
+
+		Thread.sleep(150);
+
+		assertThat(cache.get("c1", "last")).isNull();
+		assertThat(cache.get("c1", "summary")).isNotNull();
+	}
+
+	@Test
+	void transactionEndpointsKeepTheTtlWithChangeStream() throws InterruptedException {
+		ResponseCache cache = cache(true);
+		cache.put("last", "last-10-transactions", "c1", MediaType.APPLICATION_JSON, BODY, cache.generation("c1"));
+
+		Thread.sleep(150);
+
+		assertThat(cache.get("c1", "last")).isNotNull();
+	}
+
+	@Test
+	void changeOfACustomerDropsItsEntriesAndTheGlobalOnes() {
+		ResponseCache cache = cache(true);
+		cache.put("summary", "customer-summary", "c1", MediaType.APPLICATION_JSON, BODY, cache.generation("c1"));
+		cache.put("summary", "customer-summary", "c2", MediaType.APPLICATION_JSON, BODY, cache.generation("c2"));
+		cache.put("commissions", "commissions-by-product", null, MediaType.APPLICATION_JSON, BODY, cache.generation(null));
+
+		cache.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, null));
+
+		assertThat(cache.get("c1", "summary")).isNull();
+		assertThat(cache.get("c2", "summary")).isNotNull();
+		assertThat(cache.get(null, "commissions")).isNull();
+	}
+
+	@Test
+	void responseStartedBeforeAChangeIsNotStoredButOtherCustomersAre() {
+		ResponseCache cache = cache(true);
+		long c1 = cache.generation("c1");
+		long c2 = cache.generation("c2");
+
+		cache.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, null));
+		cache.put("summary", "customer-summary", "c1", MediaType.APPLICATION_JSON, BODY, c1);
+		cache.put("summary", "customer-summary", "c2", MediaType.APPLICATION_JSON, BODY, c2);
+
+		assertThat(cache.get("c1", "summary")).isNull();
+		assertThat(cache.get("c2", "summary")).isNotNull();
+	}
+
+	@Test
+	void manualInvalidationRemovesOnlyThatCustomerAndGlobalEntries() {
+		ResponseCache cache = cache(true);
+		cache.put("summary", "customer-summary", "c1", MediaType.APPLICATION_JSON, BODY, cache.generation("c1"));
+		cache.put("summary", "customer-summary", "c10", MediaType.APPLICATION_JSON, BODY, cache.generation("c10"));
+		cache.put("commissions", "commissions-by-product", null, MediaType.APPLICATION_JSON, BODY, cache.generation(null));
+
+		cache.invalidateCustomer("c1");
+
+		assertThat(cache.get("c1", "summary")).isNull();
+		assertThat(cache.get("c10", "summary")).isNotNull();
+		assertThat(cache.get(null, "commissions")).isNull();
+	}
+
+	private static ResponseCache cache(boolean changeStreamEnabled) {
+		ResponseCacheProperties properties = new ResponseCacheProperties();
+		properties.setTtl(Duration.ofMinutes(1));
+		properties.setTransactionTtl(Duration.ofMillis(50));
+		properties.setTransactionEndpoints(Set.of("last-10-transactions"));
+		return new ResponseCache(properties, new SimpleMeterRegistry(), changeStreamEnabled);
+	}
+}
@@ -0,0 +1,184 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.skoy.bootcamp_microservices.model.DailyRollup;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.repository.IDailyRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupServiceTest {
+
+	private static final LocalDate DAY_1 = LocalDate.of(2025, 3, 1);
+
+	private final AtomicInteger ids = new AtomicInteger();
+	private final AtomicInteger updateCommands = new AtomicInteger();
+	private InMemoryMongo mongo;
+	private ReactiveMongoTemplate template;
+	private RollupService rollups;
+	private MongoReportEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		mongo = new InMemoryMongo(new CommandListener() {
+			@Override
+			public void commandStarted(CommandStartedEvent event) {
+				if ("update".equals(event.getCommandName())) {
+					updateCommands.incrementAndGet();
+				}
+			}
+		});
+		template = mongo.template();
+		IDailyRollupRepository repository = new ReactiveMongoRepositoryFactory(template).getRepository(IDailyRollupRepository.class);
+		rollups = new RollupService(template, repository, new SimpleMeterRegistry());
+		engine = new MongoReportEngine(template);
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void applyAccumulatesTotalsPerDay() {
+		rollups.apply(List.of(transaction("c1", "ba1", DAY_1, "10.00", "1.00"),
+				transaction("c1", "ba1", DAY_1, "5.50", "0"),
+				transaction("c1", "ba1", DAY_1.plusDays(1), "-3.00", "0.50"))).block();
+
+		List<DailyRollup> rows = rows();
+		assertThat(rows).hasSize(2);
+		assertThat(rows.get(0).getDay()).isEqualTo(DAY_1);
+		assertThat(rows.get(0).getAmountTotal()).isEqualByComparingTo("15.50");
+		assertThat(rows.get(0).getCommissionTotal()).isEqualByComparingTo("1.00");
+		assertThat(rows.get(0).getCount()).isEqualTo(2);
+		assertThat(rows.get(1).getAmountTotal()).isEqualByComparingTo("-3.00");
+		assertThat(rows.get(1).getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void batchIsWrittenWithOneCommandAndConcurrentBatchesDoNotLoseAmounts() {
+		List<Transaction> batch = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			batch.add(transaction("c" + i % 10, "ba1", DAY_1.plusDays(i % 3), "1", "0"));
+		}
+		updateCommands.set(0);
+		rollups.apply(batch).block();
+		assertThat(updateCommands).hasValue(1);
+		assertThat(rows()).hasSize(30);
+
+		// lotes en paralelo sobre las mismas claves, como con ingestion.write-concurrency > 1
+		Flux.range(0, 8)
+				.flatMap(i -> rollups.apply(batch), 8)
+				.blockLast();
+
+		assertThat(closingBalances("c0", DAY_1.plusDays(2)).get("ba1")).isEqualByComparingTo("900");
+	}
+
+	@Test
+	void closingBalanceIsTheSumOfAmountsUpToTheDay() {
+		rollups.apply(List.of(transaction("c1", "ba1", DAY_1, "100", "0"),
+				transaction("c1", "ba1", DAY_1.plusDays(1), "-30", "0"),
+				transaction("c1", "ba1", DAY_1.plusDays(5), "7", "0"),
+				transaction("c1", "ba2", DAY_1.plusDays(2), "50", "0"),
+				transaction("c2", "ba1", DAY_1, "999", "0"))).block();
+
+		assertThat(closingBalances("c1", DAY_1.plusDays(3)))
+				.containsOnlyKeys("ba1", "ba2")
+				.hasEntrySatisfying("ba1", balance -> assertThat(balance).isEqualByComparingTo("70"))
+				.hasEntrySatisfying("ba2", balance -> assertThat(balance).isEqualByComparingTo("50"));
+		// un movimiento aplicado con fecha anterior se refleja en todos los dias siguientes
+		rollups.apply(List.of(transaction("c1", "ba1", DAY_1, "1", "0"))).block();
+		assertThat(closingBalances("c1", DAY_1.plusDays(5)).get("ba1")).isEqualByComparingTo("78");
+	}
+
+	@Test
+	void rebuildMatchesIncrementalApplyAndIsIdempotent() {
+		List<Transaction> transactions = List.of(
+				transaction("c1", "ba1", DAY_1, "10", "1"),
+				transaction("c1", "ba1", DAY_1, "20", "0"),
+				transaction("c1", "ba1", DAY_1.plusDays(2), "5", "0.25"),
+				transaction("c2", "ba9", DAY_1.plusDays(1), "8", "0"));
+		template.insertAll(transactions).blockLast();
+		transactions.forEach(transaction -> rollups.apply(List.of(transaction)).block());
+		List<Totals> incremental = totals();
+
+		assertThat(rollups.rebuild(DAY_1, DAY_1.plusDays(2)).block()).isEqualTo(3);
+		assertThat(totals()).isEqualTo(incremental);
+		assertThat(rollups.rebuild(DAY_1, DAY_1.plusDays(2)).block()).isEqualTo(3);
+		assertThat(totals()).isEqualTo(incremental);
+	}
+
+	@Test
+	void rebuildOfAnEarlierRangeCorrectsLaterClosingBalances() {
+		template.insertAll(List.of(
+				transaction("c1", "ba1", DAY_1, "100", "0"),
+				transaction("c1", "ba1", DAY_1.plusDays(10), "10", "0"))).blockLast();
+		rollups.rebuild(DAY_1, DAY_1.plusDays(10)).block();
+		// correccion con fecha pasada escrita sin pasar por apply
+		template.insert(transaction("c1", "ba1", DAY_1.plusDays(3), "-40", "0")).block();
+
+		rollups.rebuild(DAY_1.plusDays(3), DAY_1.plusDays(3)).block();
+
+		assertThat(closingBalances("c1", DAY_1.plusDays(10)).get("ba1")).isEqualByComparingTo("70");
+	}
+
+	@Test
+	void rebuildRemovesDaysThatNoLongerHaveTransactions() {
+		Transaction removed = transaction("c1", "ba1", DAY_1.plusDays(1), "10", "0");
+		template.insertAll(List.of(transaction("c1", "ba1", DAY_1, "5", "0"), removed)).blockLast();
+		rollups.rebuild(DAY_1, DAY_1.plusDays(1)).block();
+		template.remove(removed).block();
+
+		rollups.rebuild(DAY_1, DAY_1.plusDays(1)).block();
+
+		assertThat(rows()).extracting(DailyRollup::getDay).containsExactly(DAY_1);
+	}
+
+	private Map<String, BigDecimal> closingBalances(String customerId, LocalDate day) {
+		return engine.sumRollupClosingBalancesByProduct(customerId, day).block();
+	}
+
+	private List<DailyRollup> rows() {
+		return template.find(new Query().with(Sort.by("customerId", "productTypeId", "day")), DailyRollup.class)
+				.collectList()
+				.block();
+	}
+
+	private List<Totals> totals() {
+		return rows().stream()
+				.map(row -> new Totals(row.getId(), row.getAmountTotal().stripTrailingZeros(),
+						row.getCommissionTotal().stripTrailingZeros(), row.getCount()))
+				.toList();
+	}
+
+	private Transaction transaction(String customerId, String productTypeId, LocalDate day, String amount, String commission) {
+		Transaction transaction = new Transaction();
+		transaction.setId("t" + ids.incrementAndGet());
+		transaction.setCustomerId(customerId);
+		transaction.setProductTypeId(productTypeId);
+		transaction.setAmount(new BigDecimal(amount));
+		transaction.setCommissionAmount(new BigDecimal(commission));
+		transaction.setCreatedAt(day.atTime(12, 0));
+		return transaction;
+	}
+
+	private record Totals(String id, BigDecimal amountTotal, BigDecimal commissionTotal, long count) {
+	}
+}
@@ -0,0 +1,165 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.dto.DistributionReport;
+import com.skoy.bootcamp_microservices.dto.ProductDistribution;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.model.DailySketch;
+import com.skoy.bootcamp_microservices.repository.IDailySketchRepository;
+import com.skoy.bootcamp_microservices.utils.DateRange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sketches diarios sobre Mongo en memoria: los dias guardados se combinan con los que faltan y un
+ * cambio en dias cerrados borra los sketches afectados.
+ */
+class SketchServiceTest {
+
+	private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 1);
+	private static final LocalDate LAST_DAY = FIRST_DAY.plusDays(9);
+	private static final List<TransactionDTO> TRANSACTIONS = transactions();
+
+	private final List<DateRange> queried = new CopyOnWriteArrayList<>();
+	private InMemoryMongo mongo;
+	private IDailySketchRepository repository;
+	private SketchService service;
+
+	@BeforeEach
+	void setUp() {
+		mongo = new InMemoryMongo();
+		repository = new ReactiveMongoRepositoryFactory(mongo.template()).getRepository(IDailySketchRepository.class);
+		TransactionQueryClient client = mock(TransactionQueryClient.class);
+		when(client.findByDateRange(any(LocalDate.class), any(LocalDate.class), eq(false))).thenAnswer(invocation -> {
+			DateRange window = DateRange.of(invocation.getArgument(0), invocation.getArgument(1));
+			queried.add(window);
+			return Flux.fromIterable(TRANSACTIONS).filter(transaction -> window.contains(transaction.getCreatedAt()));
+		});
+		service = new SketchService(client, repository, new ReportMetrics(new SimpleMeterRegistry()), new SimpleMeterRegistry(),
+				200, 12, 64, 3, 7, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void closedDaysAreComputedOnceAndStored() {
+		DistributionReport first = service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		assertThat(first.getDays()).isEqualTo(10);
+		assertThat(first.getDaysComputed()).isEqualTo(10);
+		assertThat(storedDays()).hasSize(10);
+		assertThat(first.getProducts().get("BANK_ACCOUNT").getTransactions()).isEqualTo(count(ProductTypeEnum.BANK_ACCOUNT));
+
+		queried.clear();
+		DistributionReport second = service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		assertThat(second.getDaysComputed()).isZero();
+		assertThat(queried).isEmpty();
+		// el orden de combinacion cambia los cuantiles dentro de su error; conteos, extremos y clientes no
+		first.getProducts().forEach((product, expected) -> {
+			ProductDistribution actual = second.getProducts().get(product);
+			assertThat(actual.getTransactions()).isEqualTo(expected.getTransactions());
+			assertThat(actual.getAmount().getMin()).isEqualTo(expected.getAmount().getMin());
+			assertThat(actual.getAmount().getMax()).isEqualTo(expected.getAmount().getMax());
+			assertThat(actual.getDistinctCustomers()).isEqualTo(expected.getDistinctCustomers());
+		});
+	}
+
+	@Test
+	void storedDaysAreStitchedWithTheMissingOnes() {
+		service.distribution(FIRST_DAY, LAST_DAY).block();
+		repository.deleteAllById(List.of(FIRST_DAY.plusDays(2).toString(), FIRST_DAY.plusDays(3).toString(),
+				LAST_DAY.toString())).block();
+		queried.clear();
+
+		DistributionReport report = service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		assertThat(report.getDays()).isEqualTo(10);
+		assertThat(report.getDaysComputed()).isEqualTo(3);
+		// solo se piden las dos ventanas que faltan
+		assertThat(queried).extracting(DateRange::getStartDate).containsExactlyInAnyOrder(FIRST_DAY.plusDays(2), LAST_DAY);
+		for (ProductTypeEnum productType : ProductTypeEnum.values()) {
+			ProductDistribution distribution = report.getProducts().get(productType.name());
+			assertThat(distribution.getTransactions()).isEqualTo(count(productType));
+			assertThat(distribution.getAmount().getCount()).isEqualTo(count(productType));
+		}
+		ProductDistribution.Estimate customers = report.getProducts().get("BANK_ACCOUNT").getDistinctCustomers();
+		assertThat(50.0).isBetween(customers.getLowerBound(), customers.getUpperBound());
+	}
+
+	@Test
+	void changeInAClosedDayDeletesStoredDaysFromThatDay() {
+		service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		service.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, FIRST_DAY.plusDays(6)));
+
+		assertThat(awaitStoredDays(6)).allMatch(day -> day.isBefore(FIRST_DAY.plusDays(6)));
+		assertThat(service.distribution(FIRST_DAY, LAST_DAY).block().getDaysComputed()).isEqualTo(4);
+	}
+
+	@Test
+	void changeOfUnknownDayDeletesEveryStoredDay() {
+		service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		service.onTransactionsChanged(new TransactionsChangedEvent(Set.of(), true, null));
+
+		assertThat(awaitStoredDays(0)).isEmpty();
+	}
+
+	@Test
+	void changeOfTodayKeepsStoredDays() {
+		service.distribution(FIRST_DAY, LAST_DAY).block();
+
+		service.onTransactionsChanged(new TransactionsChangedEvent(Set.of("c1"), false, LocalDate.now()));
+
+		assertThat(service.distribution(FIRST_DAY, LAST_DAY).block().getDaysComputed()).isZero();
+	}
+
+	private List<LocalDate> storedDays() {
+		return repository.findAll().map(DailySketch::getDay).collectList().block();
+	}
+
+	private List<LocalDate> awaitStoredDays(int expected) {
+		return Flux.interval(Duration.ofMillis(20))
+				.onBackpressureDrop()
+				.concatMap(tick -> repository.findAll().map(DailySketch::getDay).collectList())
+				.filter(days -> days.size() == expected)
+				.blockFirst(Duration.ofSeconds(5));
+	}
+
+	private static long count(ProductTypeEnum productType) {
+		return TRANSACTIONS.stream().filter(transaction -> transaction.getProductType() == productType).count();
+	}
+
+	private static List<TransactionDTO> transactions() {
+		List<TransactionDTO> transactions = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			ProductTypeEnum productType = i % 4 == 0 ? ProductTypeEnum.CREDIT : ProductTypeEnum.BANK_ACCOUNT;
+			transactions.add(new TransactionDTO("t" + i, "c" + i % 50, productType, "p" + i % 20, null, null, null,
+					BigDecimal.valueOf(i, 2), null, FIRST_DAY.plusDays(i % 10).atTime(i % 24, 0), BigDecimal.ZERO));
+		}
+		return transactions;
+	}
+}
@@ -0,0 +1,95 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.dto.IngestionResult;
+import com.skoy.bootcamp_microservices.dto.TransactionsChangedEvent;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.repository.IDailyRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionIngestionServiceTest {
+
+	private final List<TransactionsChangedEvent> events = new CopyOnWriteArrayList<>();
+	private final AtomicBoolean listenerFails = new AtomicBoolean();
+	private InMemoryMongo mongo;
+	private ReactiveMongoTemplate template;
+	private TransactionIngestionService ingestion;
+
+	@BeforeEach
+	void setUp() {
+		mongo = new InMemoryMongo();
+		template = mongo.template();
+		IDailyRollupRepository repository = new ReactiveMongoRepositoryFactory(template).getRepository(IDailyRollupRepository.class);
+		ApplicationEventPublisher publisher = event -> {
+			if (listenerFails.get()) {
+				throw new IllegalStateException("listener failed");
+			}
+			events.add((TransactionsChangedEvent) event);
+		};
+		ingestion = new TransactionIngestionService(template, new RollupService(template, repository, new SimpleMeterRegistry()),
+				publisher, new SimpleMeterRegistry(), 10, Duration.ofMillis(10), 2, 64, true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ingestion.destroy();
+		mongo.close();
+	}
+
+	@Test
+	void submitReportsInsertedAndDuplicate() {
+		StepVerifier.create(ingestion.submit(transaction("t1")))
+				.assertNext(result -> assertThat(result.getInserted()).isEqualTo(1))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+		StepVerifier.create(ingestion.submit(transaction("t1")))
+				.assertNext(result -> assertThat(result.getDuplicates()).isEqualTo(1))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(events).hasSize(1);
+	}
+
+	@Test
+	void failingListenerFailsItsBatchAndTheQueueKeepsWorking() {
+		listenerFails.set(true);
+		StepVerifier.create(ingestion.submit(transaction("t1")))
+				.expectErrorMessage("listener failed")
+				.verify(Duration.ofSeconds(5));
+
+		listenerFails.set(false);
+		StepVerifier.create(ingestion.submit(transaction("t2")))
+				.assertNext(result -> assertThat(result).isEqualTo(new IngestionResult(1, 1, 0, 0, 0)))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getEarliestDay()).isEqualTo(LocalDate.of(2025, 3, 1));
+	}
+
+	private static Transaction transaction(String id) {
+		Transaction transaction = new Transaction();
+		transaction.setId(id);
+		transaction.setCustomerId("c1");
+		transaction.setProductTypeId("ba1");
+		transaction.setAmount(new BigDecimal("10.00"));
+		transaction.setCommissionAmount(BigDecimal.ZERO);
+		transaction.setCreatedAt(LocalDateTime.of(2025, 3, 1, 12, 0));
+		return transaction;
+	}
+}
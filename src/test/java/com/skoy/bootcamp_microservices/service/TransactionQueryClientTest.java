@@ -0,0 +1,293 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skoy.bootcamp_microservices.config.DownstreamClients;
+import com.skoy.bootcamp_microservices.config.WebClientProperties;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionQueryModeEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionStatusEnum;
+import com.skoy.bootcamp_microservices.enums.TransactionTypeEnum;
+import com.skoy.bootcamp_microservices.model.Transaction;
+import com.skoy.bootcamp_microservices.utils.KeyedSum;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TransactionQueryClient contra un servicio de transacciones local con un libro mayor sintetico de
+ * un año: bytes transferidos y pico de heap de la consulta filtrada frente a descargar todo el libro
+ * (comportamiento anterior), y fallback paginado cuando el servicio rechaza los filtros.
+ */
+class TransactionQueryClientTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(TransactionQueryClientTest.class);
+	private static final int LEDGER_SIZE = 120_000;
+	private static final LocalDate LEDGER_START = LocalDate.of(2025, 1, 1);
+	private static final LocalDate MONTH_START = LocalDate.of(2025, 6, 1);
+	private static final LocalDate MONTH_END = LocalDate.of(2025, 6, 30);
+
+	private static final List<LedgerEntry> ledger = new ArrayList<>();
+	private static long ledgerBytes;
+	private static StubTransactionService stub;
+
+	private TransactionQueryClient client;
+
+	@BeforeAll
+	static void startStub() throws IOException {
+		ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+		Random random = new Random(7);
+		for (int i = 0; i < LEDGER_SIZE; i++) {
+			LocalDateTime createdAt = LEDGER_START.plusDays(random.nextInt(365)).atTime(random.nextInt(24), random.nextInt(60));
+			BigDecimal commission = random.nextInt(5) == 0 ? BigDecimal.valueOf(1 + random.nextInt(2_000), 2) : BigDecimal.ZERO;
+			TransactionDTO transaction = new TransactionDTO("t" + i, "c" + random.nextInt(1_000),
+					ProductTypeEnum.BANK_ACCOUNT, "ba" + random.nextInt(50), TransactionTypeEnum.DEPOSIT,
+					Transaction.CardTypeEnum.DEBIT, "card" + random.nextInt(50),
+					BigDecimal.valueOf(random.nextInt(200_000), 2), TransactionStatusEnum.APPROVED, createdAt, commission);
+			byte[] json = mapper.writeValueAsBytes(transaction);
+			ledger.add(new LedgerEntry(transaction, json));
+			ledgerBytes += json.length + 1;
+		}
+		stub = new StubTransactionService();
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.server.disposeNow();
+	}
+
+	@BeforeEach
+	void setUp() {
+		stub.reset();
+		DownstreamClients clients = new DownstreamClients(
+				Map.of(DownstreamClients.TRANSACTION, WebClient.builder()
+						.baseUrl("http://localhost:" + stub.server.port() + "/api/v1")
+						.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+						.build()),
+				List.of());
+		client = new TransactionQueryClient(clients,
+				new ResilientCalls(new WebClientProperties(), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(client, "queryMode", TransactionQueryModeEnum.FILTERED);
+		ReflectionTestUtils.setField(client, "pageSize", 5_000);
+	}
+
+	@Test
+	void filteredQueryTransfersOnlyMatchingTransactions() {
+		Map<String, BigDecimal> expected = expectedCommissions();
+
+		Measurement filtered = measure(() -> KeyedSum.sumByKey(client.findByDateRange(MONTH_START, MONTH_END, true),
+				TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount).block());
+		stub.reset();
+		Measurement fullLedger = measure(() -> KeyedSum.sumByKey(WebClient.create("http://localhost:" + stub.server.port() + "/api/v1")
+						.get().uri("/transactions").retrieve().bodyToFlux(TransactionDTO.class)
+						.filter(transaction -> !transaction.getCreatedAt().toLocalDate().isBefore(MONTH_START)
+								&& !transaction.getCreatedAt().toLocalDate().isAfter(MONTH_END)
+								&& transaction.getCommissionAmount().signum() > 0),
+				TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount).block());
+		logger.info("Ledger {} tx / {} B. Filtered: {} B, peak heap +{} B. Full ledger: {} B, peak heap +{} B",
+				LEDGER_SIZE, ledgerBytes, filtered.bytes, filtered.peakHeap, fullLedger.bytes, fullLedger.peakHeap);
+
+		assertThat(filtered.result).isEqualTo(expected);
+		assertThat(fullLedger.result).isEqualTo(expected);
+		assertThat(fullLedger.bytes).isGreaterThanOrEqualTo(ledgerBytes);
+		// un mes con comision es ~1/60 del libro
+		assertThat(filtered.bytes).isLessThan(ledgerBytes / 20);
+		assertThat(filtered.peakHeap).isLessThan(ledgerBytes);
+		assertThat(stub.requests).hasSize(1);
+	}
+
+	@Test
+	void rejectedFiltersFallBackToUnfilteredPagesFilteredLocally() {
+		stub.rejectFiltersStatus = 400;
+
+		Map<String, BigDecimal> result = KeyedSum.sumByKey(client.findByDateRange(MONTH_START, MONTH_END, true),
+				TransactionDTO::getProductTypeId, TransactionDTO::getCommissionAmount).block();
+
+		assertThat(result).isEqualTo(expectedCommissions());
+		List<String> pages = stub.requests.subList(1, stub.requests.size());
+		assertThat(pages).hasSize(LEDGER_SIZE / 5_000 + 1)
+				.allSatisfy(uri -> assertThat(uri).contains("page=").doesNotContain("dateFrom", "dateTo", "commissionGreaterThan"));
+	}
+
+	@Test
+	void pagingStopsWhenTheServiceIgnoresThePageNumber() {
+		stub.rejectFiltersStatus = 400;
+		stub.ignorePage = true;
+
+		List<TransactionDTO> result = client.findByDateRange(LEDGER_START, LEDGER_START.plusYears(1), false)
+				.collectList().block(Duration.ofSeconds(30));
+
+		// la segunda pagina repite la primera: se descarta y no se pide una tercera
+		assertThat(result).hasSize(5_000).extracting(TransactionDTO::getId).doesNotHaveDuplicates();
+		assertThat(stub.requests).hasSize(3);
+	}
+
+	@Test
+	void nonStandardStatusIsPropagatedWithoutFallback() {
+		stub.rejectFiltersStatus = 599;
+
+		StepVerifier.create(client.findByDateRange(MONTH_START, MONTH_END, true))
+				.expectErrorSatisfies(ex -> assertThat(ex).isInstanceOf(WebClientResponseException.class)
+						.extracting(error -> ((WebClientResponseException) error).getStatusCode().value()).isEqualTo(599))
+				.verify(Duration.ofSeconds(10));
+		assertThat(stub.requests).hasSize(1);
+	}
+
+	private static Map<String, BigDecimal> expectedCommissions() {
+		Map<String, BigDecimal> sums = new HashMap<>();
+		ledger.stream()
+				.map(LedgerEntry::transaction)
+				.filter(transaction -> inMonth(transaction) && transaction.getCommissionAmount().signum() > 0)
+				.forEach(transaction -> sums.merge(transaction.getProductTypeId(), transaction.getCommissionAmount(), BigDecimal::add));
+		return sums;
+	}
+
+	private static boolean inMonth(TransactionDTO transaction) {
+		LocalDate day = transaction.getCreatedAt().toLocalDate();
+		return !day.isBefore(MONTH_START) && !day.isAfter(MONTH_END);
+	}
+
+	/**
+	 * Bytes enviados por el stub y pico de heap (suma de los picos de cada pool) sobre el uso tras un GC.
+	 */
+	private static Measurement measure(Supplier<Map<String, BigDecimal>> run) {
+		List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.toList();
+		System.gc();
+		long baseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		Map<String, BigDecimal> result = run.get();
+		long peak = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+		return new Measurement(result, stub.bytesSent.get(), Math.max(0, peak - baseline));
+	}
+
+	private record Measurement(Map<String, BigDecimal> result, long bytes, long peakHeap) {
+	}
+
+	private record LedgerEntry(TransactionDTO transaction, byte[] json) {
+	}
+
+	/**
+	 * GET /api/v1/transactions con dateFrom/dateTo/commissionGreaterThan y page/size opcionales (ignorePage
+	 * simula un servicio que solo respeta size);
+	 * responde NDJSON si se acepta y si no un arreglo JSON, en trozos para no construir el cuerpo entero.
+	 */
+	private static final class StubTransactionService {
+
+		private final DisposableServer server;
+		private final AtomicLong bytesSent = new AtomicLong();
+		private final List<String> requests = new CopyOnWriteArrayList<>();
+		private volatile int rejectFiltersStatus;
+		private volatile boolean ignorePage;
+
+		StubTransactionService() {
+			server = HttpServer.create().host("localhost").port(0)
+					.route(routes -> routes.get("/api/v1/transactions", this::handle))
+					.bindNow();
+		}
+
+		void reset() {
+			bytesSent.set(0);
+			requests.clear();
+			rejectFiltersStatus = 0;
+			ignorePage = false;
+		}
+
+		private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+			requests.add(request.uri());
+			Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+			if (rejectFiltersStatus != 0 && params.containsKey("dateFrom")) {
+				return response.status(rejectFiltersStatus).send();
+			}
+			LocalDate from = params.containsKey("dateFrom") ? LocalDate.parse(params.get("dateFrom").get(0)) : LocalDate.MIN;
+			LocalDate to = params.containsKey("dateTo") ? LocalDate.parse(params.get("dateTo").get(0)) : LocalDate.MAX;
+			boolean commissionOnly = params.containsKey("commissionGreaterThan");
+			Flux<byte[]> lines = Flux.fromIterable(ledger)
+					.filter(entry -> {
+						LocalDate day = entry.transaction().getCreatedAt().toLocalDate();
+						return !day.isBefore(from) && !day.isAfter(to)
+								&& (!commissionOnly || entry.transaction().getCommissionAmount().signum() > 0);
+					})
+					.map(LedgerEntry::json);
+			if (params.containsKey("page")) {
+				int size = Integer.parseInt(params.get("size").get(0));
+				int page = ignorePage ? 0 : Integer.parseInt(params.get("page").get(0));
+				lines = lines.skip((long) page * size).take(size);
+			}
+			boolean ndjson = request.requestHeaders().get(HttpHeaders.ACCEPT, "").contains(MediaType.APPLICATION_NDJSON_VALUE);
+			Flux<byte[]> body = ndjson ? ndjsonChunks(lines) : jsonArrayChunks(lines);
+			return response.header(HttpHeaders.CONTENT_TYPE, ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE)
+					.sendByteArray(body.doOnNext(chunk -> bytesSent.addAndGet(chunk.length)));
+		}
+
+		private static Flux<byte[]> ndjsonChunks(Flux<byte[]> lines) {
+			return lines.buffer(256).map(batch -> join(batch, (byte) '\n'));
+		}
+
+		private static Flux<byte[]> jsonArrayChunks(Flux<byte[]> lines) {
+			return Flux.concat(Mono.just(new byte[] {'['}),
+					lines.index().buffer(256).map(batch -> {
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						batch.forEach(line -> {
+							if (line.getT1() > 0) {
+								out.write(',');
+							}
+							out.writeBytes(line.getT2());
+						});
+						return out.toByteArray();
+					}),
+					Mono.just(new byte[] {']'}));
+		}
+
+		private static byte[] join(List<byte[]> batch, byte separator) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			batch.forEach(line -> {
+				out.writeBytes(line);
+				out.write(separator);
+			});
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.skoy.bootcamp_microservices.service;
+
+import com.skoy.bootcamp_microservices.dto.ProductDistribution;
+import com.skoy.bootcamp_microservices.dto.TransactionDTO;
+import com.skoy.bootcamp_microservices.enums.ProductTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los resumenes se combinan y se serializan sin perder precision, y sus estimaciones quedan dentro
+ * de las cotas de error que informan.
+ */
+class TransactionSketchTest {
+
+	private static final int QUANTILE_K = 200;
+	private static final int DISTINCT_LG_K = 12;
+	private static final int ACCOUNTS_MAP_SIZE = 64;
+	private static final int CUSTOMERS = 5_000;
+	private static final List<TransactionDTO> TRANSACTIONS = transactions(50_000);
+
+	@Test
+	void mergedHalvesMatchTheSketchOfTheWhole() {
+		TransactionSketch whole = sketch(TRANSACTIONS);
+		TransactionSketch merged = sketch(TRANSACTIONS.subList(0, 20_000)).merge(sketch(TRANSACTIONS.subList(20_000, TRANSACTIONS.size())));
+
+		ProductDistribution expected = whole.toDistribution(5);
+		ProductDistribution actual = merged.toDistribution(5);
+		double rankError = actual.getErrorBounds().getQuantileRankError();
+		assertThat(actual.getTransactions()).isEqualTo(TRANSACTIONS.size());
+		assertThat(actual.getAmount().getCount()).isEqualTo(expected.getAmount().getCount());
+		assertThat(actual.getAmount().getMin()).isEqualTo(expected.getAmount().getMin());
+		assertThat(actual.getAmount().getMax()).isEqualTo(expected.getAmount().getMax());
+		assertThat(rank(actual.getAmount().getP50())).isBetween(0.5 - 2 * rankError, 0.5 + 2 * rankError);
+		// el union estima con otro estimador que el sketch directo: se exige la cota, no el mismo valor
+		assertThat((double) CUSTOMERS).isBetween(actual.getDistinctCustomers().getLowerBound(), actual.getDistinctCustomers().getUpperBound());
+		assertThat(actual.getTopAccounts()).extracting(ProductDistribution.HeavyHitter::getAccountId)
+				.containsExactlyElementsOf(expected.getTopAccounts().stream().map(ProductDistribution.HeavyHitter::getAccountId).toList());
+	}
+
+	@Test
+	void storedSketchHeapifiesToTheSameDistribution() {
+		TransactionSketch sketch = sketch(TRANSACTIONS);
+
+		TransactionSketch restored = TransactionSketch.fromStored(sketch.toStored(), DISTINCT_LG_K);
+
+		assertThat(restored.toDistribution(5)).isEqualTo(sketch.toDistribution(5));
+		// y sigue siendo combinable despues de leerlo
+		assertThat(restored.merge(sketch(TRANSACTIONS.subList(0, 10))).toDistribution(5).getTransactions())
+				.isEqualTo(TRANSACTIONS.size() + 10);
+	}
+
+	@Test
+	void estimatesStayWithinTheirErrorBounds() {
+		ProductDistribution distribution = sketch(TRANSACTIONS).toDistribution(3);
+
+		double rankError = distribution.getErrorBounds().getQuantileRankError();
+		assertThat(rank(distribution.getAmount().getP50())).isBetween(0.50 - rankError, 0.50 + rankError);
+		assertThat(rank(distribution.getAmount().getP90())).isBetween(0.90 - rankError, 0.90 + rankError);
+		assertThat(rank(distribution.getAmount().getP99())).isBetween(0.99 - rankError, 0.99 + rankError);
+
+		ProductDistribution.Estimate customers = distribution.getDistinctCustomers();
+		assertThat((double) CUSTOMERS).isBetween(customers.getLowerBound(), customers.getUpperBound());
+
+		// ba0 es la cuenta mas frecuente (1/10 de las transacciones), el resto se reparte por igual
+		ProductDistribution.HeavyHitter top = distribution.getTopAccounts().get(0);
+		long trueCount = TRANSACTIONS.stream().filter(transaction -> "ba0".equals(transaction.getProductTypeId())).count();
+		assertThat(top.getAccountId()).isEqualTo("ba0");
+		assertThat(trueCount).isBetween(top.getLowerBound(), top.getUpperBound());
+		assertThat(top.getUpperBound() - top.getLowerBound()).isLessThanOrEqualTo(distribution.getErrorBounds().getTopAccountsMaxError());
+	}
+
+	@Test
+	void emptySketchHasNoQuantiles() {
+		ProductDistribution distribution = TransactionSketch.empty(QUANTILE_K, DISTINCT_LG_K, ACCOUNTS_MAP_SIZE).toDistribution(3);
+
+		assertThat(distribution.getTransactions()).isZero();
+		assertThat(distribution.getAmount()).isNull();
+		assertThat(distribution.getTopAccounts()).isEmpty();
+	}
+
+	private static TransactionSketch sketch(List<TransactionDTO> transactions) {
+		TransactionSketch sketch = TransactionSketch.empty(QUANTILE_K, DISTINCT_LG_K, ACCOUNTS_MAP_SIZE);
+		transactions.forEach(sketch::update);
+		return sketch;
+	}
+
+	/**
+	 * Rango normalizado del valor entre los montos reales.
+	 */
+	private static double rank(double value) {
+		double[] amounts = TRANSACTIONS.stream().mapToDouble(transaction -> transaction.getAmount().doubleValue()).sorted().toArray();
+		int position = Arrays.binarySearch(amounts, value);
+		return (double) (position >= 0 ? position : -position - 1) / amounts.length;
+	}
+
+	private static List<TransactionDTO> transactions(int count) {
+		Random random = new Random(7);
+		List<TransactionDTO> transactions = new ArrayList<>(count);
+		LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+		for (int i = 0; i < count; i++) {
+			String account = i % 10 == 0 ? "ba0" : "ba" + (1 + random.nextInt(500));
+			transactions.add(new TransactionDTO("t" + i, "c" + i % CUSTOMERS, ProductTypeEnum.BANK_ACCOUNT, account, null, null, null,
+					BigDecimal.valueOf(random.nextInt(1_000_000), 2), null, start.plusSeconds(i), BigDecimal.ONE));
+		}
+		return transactions;
+	}
+}
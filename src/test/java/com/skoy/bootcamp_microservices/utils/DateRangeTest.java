@@ -0,0 +1,67 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateRangeTest {
+
+	private static final LocalDate START = LocalDate.of(2025, 1, 30);
+	private static final LocalDate END = LocalDate.of(2025, 2, 10);
+
+	@Test
+	void bothEndsAreInclusive() {
+		DateRange range = DateRange.of(START, END);
+
+		assertThat(range.contains(START.atStartOfDay())).isTrue();
+		assertThat(range.contains(END.atTime(23, 59, 59))).isTrue();
+		assertThat(range.contains(START.minusDays(1).atTime(23, 59, 59))).isFalse();
+		assertThat(range.contains(END.plusDays(1).atStartOfDay())).isFalse();
+		assertThat(range.contains(null)).isFalse();
+	}
+
+	@Test
+	void matchesLocalDateComparisonOnEveryHour() {
+		DateRange range = DateRange.of(START, END);
+
+		for (LocalDateTime time = START.minusDays(2).atStartOfDay(); time.isBefore(END.plusDays(2).atStartOfDay()); time = time.plusMinutes(59)) {
+			LocalDate day = time.toLocalDate();
+			assertThat(range.contains(time)).as(time.toString()).isEqualTo(!day.isBefore(START) && !day.isAfter(END));
+		}
+	}
+
+	@Test
+	void daysCountsBothEnds() {
+		assertThat(DateRange.of(START, END).days()).isEqualTo(12);
+		assertThat(DateRange.of(START, START).days()).isEqualTo(1);
+	}
+
+	@Test
+	void splitCoversTheRangeWithAShorterLastWindow() {
+		List<DateRange> windows = DateRange.of(START, END).split(5);
+
+		assertThat(windows).extracting(DateRange::getStartDate)
+				.containsExactly(START, LocalDate.of(2025, 2, 4), LocalDate.of(2025, 2, 9));
+		assertThat(windows).extracting(DateRange::getEndDate)
+				.containsExactly(LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 8), END);
+		assertThat(windows.stream().mapToLong(DateRange::days).sum()).isEqualTo(12);
+	}
+
+	@Test
+	void splitWiderThanTheRangeGivesOneWindow() {
+		List<DateRange> windows = DateRange.of(START, END).split(30);
+
+		assertThat(windows).hasSize(1);
+		assertThat(windows.get(0).getStartDate()).isEqualTo(START);
+		assertThat(windows.get(0).getEndDate()).isEqualTo(END);
+	}
+
+	@Test
+	void emptyRangeHasNoWindows() {
+		assertThat(DateRange.of(END, START).split(7)).isEmpty();
+	}
+}
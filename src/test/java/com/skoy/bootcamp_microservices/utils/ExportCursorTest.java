@@ -0,0 +1,60 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportCursorTest {
+
+	@Test
+	void roundTripsCreatedAtAndId() {
+		ExportCursor cursor = new ExportCursor(LocalDateTime.of(2025, 6, 1, 10, 30, 15), "t|1");
+
+		assertThat(ExportCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void roundTripsNullCreatedAt() {
+		ExportCursor cursor = new ExportCursor(null, "t1");
+
+		assertThat(ExportCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void roundTripsSubSecondPrecision() {
+		ExportCursor cursor = new ExportCursor(LocalDateTime.of(2025, 6, 1, 10, 30, 0, 123_456_789), "t1");
+
+		assertThat(ExportCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void tokenIsUrlSafe() {
+		// ids con bytes que en base64 estandar darian '+' y '/'
+		String token = new ExportCursor(LocalDateTime.of(2025, 6, 1, 0, 0), "??>>ñ~~").encode();
+
+		assertThat(token).doesNotContain("+", "/", "=");
+		assertThat(ExportCursor.decode(token).id()).isEqualTo("??>>ñ~~");
+	}
+
+	@Test
+	void blankTokenMeansFromTheStart() {
+		assertThat(ExportCursor.decode(null)).isNull();
+		assertThat(ExportCursor.decode(" ")).isNull();
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		assertThatThrownBy(() -> ExportCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ExportCursor.decode(encode("no-separator"))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ExportCursor.decode(encode("null|t1"))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,112 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimiterTest {
+
+	private static final long RTT = 10_000_000;
+
+	@Test
+	void rejectsBeyondTheLimit() {
+		GradientLimiter limiter = limiter(true, 2);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+		assertThat(limiter.getInFlight()).isEqualTo(2);
+
+		limiter.release();
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void steadyLatencyAtFullConcurrencyRaisesTheLimit() {
+		GradientLimiter limiter = limiter(true, 10);
+
+		saturate(limiter, 50, RTT);
+
+		assertThat(limiter.getLimit()).isGreaterThan(10);
+	}
+
+	@Test
+	void risingLatencyLowersTheLimit() {
+		GradientLimiter limiter = limiter(true, 20);
+		saturate(limiter, 20, RTT);
+		int before = limiter.getLimit();
+
+		// una sola ronda: con el tiempo el promedio largo alcanza la nueva latencia y el limite vuelve a subir
+		saturate(limiter, 1, 4 * RTT);
+
+		assertThat(limiter.getLimit()).isLessThan(before);
+	}
+
+	@Test
+	void lowConcurrencyDoesNotMoveTheLimit() {
+		GradientLimiter limiter = limiter(true, 20);
+
+		for (int i = 0; i < 50; i++) {
+			limiter.tryAcquire();
+			limiter.release(i % 2 == 0 ? RTT : 10 * RTT, false);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(20);
+	}
+
+	@Test
+	void dropsShrinkTheLimitDownToTheMinimum() {
+		GradientLimiter limiter = limiter(true, 10);
+
+		limiter.tryAcquire();
+		limiter.release(RTT, true);
+		assertThat(limiter.getLimit()).isEqualTo(9);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire();
+			limiter.release(RTT, true);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void limitStaysWithinMax() {
+		GradientLimiter limiter = limiter(true, 30);
+
+		saturate(limiter, 200, RTT);
+
+		assertThat(limiter.getLimit()).isEqualTo(40);
+	}
+
+	@Test
+	void nonAdaptiveLimitIsFixed() {
+		GradientLimiter limiter = limiter(false, 5);
+
+		saturate(limiter, 20, RTT);
+		limiter.tryAcquire();
+		limiter.release(RTT, true);
+
+		assertThat(limiter.getLimit()).isEqualTo(5);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	private static GradientLimiter limiter(boolean adaptive, int initialLimit) {
+		return new GradientLimiter(adaptive, initialLimit, 2, 40, 0.2, 1.5, 100);
+	}
+
+	/**
+	 * Ocupa todo el limite y libera cada peticion con la latencia dada, rounds veces.
+	 */
+	private static void saturate(GradientLimiter limiter, int rounds, long rttNanos) {
+		for (int round = 0; round < rounds; round++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				limiter.release(rttNanos, false);
+			}
+		}
+	}
+}
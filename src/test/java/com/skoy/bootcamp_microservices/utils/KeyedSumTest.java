@@ -0,0 +1,87 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSumTest {
+
+	@Test
+	void sumsPerKeyAtMoneyScale() {
+		Map<String, BigDecimal> totals = KeyedSum.sumByKey(
+				Flux.just(entry("a", "10.10"), entry("b", "1"), entry("a", "0.205"), entry("a", "-5")),
+				Map.Entry::getKey, Map.Entry::getValue).block();
+
+		assertThat(totals).containsOnlyKeys("a", "b");
+		assertThat(totals.get("a")).isEqualByComparingTo("5.305");
+		assertThat(totals.get("b")).isEqualTo(new BigDecimal("1.00"));
+	}
+
+	@Test
+	void subCentAmountsGiveTheSameTotalAsBigDecimalAdd() {
+		// redondear cada elemento a centimos daria 0.01 * 1000 = 10.00
+		List<BigDecimal> amounts = Flux.range(0, 1_000)
+				.map(i -> new BigDecimal(i % 3 == 0 ? "0.005" : "0.0049"))
+				.concatWithValues(new BigDecimal("12.34"), new BigDecimal("-0.001"))
+				.collectList().block();
+
+		Map<String, BigDecimal> totals = KeyedSum.sumByKey(Flux.fromIterable(amounts), amount -> "a", amount -> amount).block();
+
+		assertThat(totals.get("a")).isEqualByComparingTo(amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+	}
+
+	@Test
+	void nullKeysAndValuesAreIgnored() {
+		Map<String, BigDecimal> totals = KeyedSum.sumByKey(
+				Flux.just(entry(null, "1"), entry("a", null), entry("a", "2")),
+				Map.Entry::getKey, Map.Entry::getValue).block();
+
+		assertThat(totals).containsExactly(Map.entry("a", new BigDecimal("2.00")));
+	}
+
+	@Test
+	void emptySourceGivesEmptyMap() {
+		assertThat(KeyedSum.sumByKey(Flux.<Map.Entry<String, BigDecimal>>empty(), Map.Entry::getKey, Map.Entry::getValue).block())
+				.isEmpty();
+	}
+
+	@Test
+	void customScaleIsKept() {
+		Map<String, BigDecimal> totals = KeyedSum.sumByKey(Flux.just(entry("a", "0.0004"), entry("a", "0.0001")),
+				Map.Entry::getKey, Map.Entry::getValue, 4).block();
+
+		assertThat(totals.get("a")).isEqualTo(new BigDecimal("0.0005"));
+	}
+
+	@Test
+	void totalsBeyondALongAreSummedExactly() {
+		BigDecimal huge = BigDecimal.valueOf(Long.MAX_VALUE / 100);
+
+		Map<String, BigDecimal> totals = KeyedSum.sumByKey(Flux.just(Map.entry("a", huge), Map.entry("a", huge), Map.entry("a", BigDecimal.ONE)),
+				Map.Entry::getKey, Map.Entry::getValue).block();
+
+		assertThat(totals.get("a")).isEqualByComparingTo(huge.add(huge).add(BigDecimal.ONE));
+	}
+
+	@Test
+	void mergeAddsSharedKeysAndKeepsTheRest() {
+		Map<String, BigDecimal> merged = KeyedSum.merge(
+				Map.of("a", new BigDecimal("1.50"), "b", BigDecimal.ONE),
+				Map.of("a", new BigDecimal("2.25"), "c", BigDecimal.TEN));
+
+		assertThat(merged).containsOnlyKeys("a", "b", "c");
+		assertThat(merged.get("a")).isEqualByComparingTo("3.75");
+		assertThat(merged.get("b")).isEqualByComparingTo("1");
+		assertThat(merged.get("c")).isEqualByComparingTo("10");
+	}
+
+	private static Map.Entry<String, BigDecimal> entry(String key, String value) {
+		return new AbstractMap.SimpleEntry<>(key, value == null ? null : new BigDecimal(value));
+	}
+}
@@ -0,0 +1,50 @@
+package com.skoy.bootcamp_microservices.utils;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+	@Test
+	void keepsTheLargestInDescendingOrder() {
+		assertThat(TopK.of(Flux.just(5, 1, 9, 3, 7, 9, 2), 3, Comparator.naturalOrder()).block())
+				.containsExactly(9, 9, 7);
+	}
+
+	@Test
+	void matchesSortingOnRandomInput() {
+		List<Integer> values = new Random(42).ints(10_000, 0, 1_000).boxed().toList();
+		List<Integer> expected = values.stream().sorted(Comparator.reverseOrder()).limit(10).toList();
+
+		assertThat(TopK.of(Flux.fromIterable(values), 10, Comparator.naturalOrder()).block()).isEqualTo(expected);
+	}
+
+	@Test
+	void fewerElementsThanK() {
+		assertThat(TopK.of(Flux.just(2, 1), 5, Comparator.naturalOrder()).block()).containsExactly(2, 1);
+		assertThat(TopK.of(Flux.<Integer>empty(), 5, Comparator.naturalOrder()).block()).isEmpty();
+	}
+
+	@Test
+	void nonPositiveKStillConsumesTheSource() {
+		AtomicInteger consumed = new AtomicInteger();
+
+		List<Integer> top = TopK.of(Flux.range(0, 10).doOnNext(i -> consumed.incrementAndGet()), 0, Comparator.naturalOrder()).block();
+
+		assertThat(top).isEmpty();
+		assertThat(consumed).hasValue(10);
+	}
+
+	@Test
+	void comparatorDefinesLargest() {
+		assertThat(TopK.of(Flux.just("bb", "a", "dddd", "ccc"), 2, Comparator.comparingInt(String::length)).block())
+				.containsExactly("dddd", "ccc");
+	}
+}